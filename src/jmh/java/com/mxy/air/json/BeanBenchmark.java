@@ -0,0 +1,228 @@
+package com.mxy.air.json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JavaBean直接序列化和先转换为JSONObject再序列化的速度对比.
+ * 分别测量只有基本类型属性的bean, 嵌套的bean, 包含集合的bean, 以及getter抛出异常或Error时的处理.
+ * JSONObject(Object)不展开嵌套的bean, 而是输出其toString(), 因此nested和collections的twoStep做的工作更少, 只作为参考
+ *
+ * @author mengxiangyun
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanBenchmark {
+
+	/* 预先创建的异常, 只测量异常处理的开销, 不包括填充异常栈 */
+	private static final IllegalStateException RUNTIME = new IllegalStateException("broken");
+
+	private static final Exception CHECKED = new Exception("checked");
+
+	private static final Error ERROR = new Error("fatal");
+
+	public static class Flat {
+
+		public int getA() {
+			return 1;
+		}
+
+		public String getB() {
+			return "s";
+		}
+
+		public double getC() {
+			return 2.5;
+		}
+
+		public boolean isD() {
+			return false;
+		}
+
+		public long getE() {
+			return 7L;
+		}
+
+	}
+
+	public static class Address {
+
+		public String getCity() {
+			return "Beijing";
+		}
+
+		public String getStreet() {
+			return "Chang'an Avenue";
+		}
+
+		public int getZip() {
+			return 100000;
+		}
+
+	}
+
+	public static class Customer {
+
+		private final Address address = new Address();
+
+		public String getName() {
+			return "customer";
+		}
+
+		public Address getAddress() {
+			return address;
+		}
+
+	}
+
+	/* 三层嵌套的bean */
+	public static class Nested {
+
+		private final Customer customer = new Customer();
+
+		public long getId() {
+			return 42L;
+		}
+
+		public Customer getCustomer() {
+			return customer;
+		}
+
+	}
+
+	/* 包含bean的List, Map和基本类型数组 */
+	public static class WithCollections {
+
+		private final List<Flat> items = new ArrayList<>();
+
+		private final Map<String, Integer> counts = new LinkedHashMap<>();
+
+		private final int[] scores = new int[20];
+
+		public WithCollections() {
+			for (int i = 0; i < 10; i++) {
+				items.add(new Flat());
+				counts.put("key" + i, i);
+			}
+			for (int i = 0; i < scores.length; i++) {
+				scores[i] = i * 3;
+			}
+		}
+
+		public List<Flat> getItems() {
+			return items;
+		}
+
+		public Map<String, Integer> getCounts() {
+			return counts;
+		}
+
+		public int[] getScores() {
+			return scores;
+		}
+
+	}
+
+	/* 部分getter抛出异常, 这些属性被忽略 */
+	public static class Failing extends Flat {
+
+		public String getBroken() {
+			throw RUNTIME;
+		}
+
+		public String getChecked() throws Exception {
+			throw CHECKED;
+		}
+
+	}
+
+	/* getter抛出Error, 直接序列化时Error被重新抛出 */
+	public static class Fatal extends Flat {
+
+		public String getValue() {
+			throw ERROR;
+		}
+
+	}
+
+	@Param({ "flat", "nested", "collections", "failing" })
+	public String shape;
+
+	private Object bean;
+
+	@Setup
+	public void setup() {
+		switch (shape) {
+		case "nested":
+			bean = new Nested();
+			break;
+		case "collections":
+			bean = new WithCollections();
+			break;
+		case "failing":
+			bean = new Failing();
+			break;
+		default:
+			bean = new Flat();
+		}
+		if (bean instanceof Flat && !new JSONStringer().bean(bean).equals(new JSONObject(bean).toString())) {
+			throw new IllegalStateException("直接序列化与两步序列化的结果不同: " + shape);
+		}
+	}
+
+	@Benchmark
+	public String direct() {
+		return new JSONStringer().bean(bean);
+	}
+
+	@Benchmark
+	public String twoStep() {
+		return new JSONObject(bean).toString();
+	}
+
+	/**
+	 * getter抛出Error时的处理, 与bean的形状无关, 单独测量
+	 */
+	@State(Scope.Benchmark)
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	@Warmup(iterations = 5, time = 1)
+	@Measurement(iterations = 5, time = 1)
+	@Fork(1)
+	public static class ErrorPath {
+
+		private final Fatal fatal = new Fatal();
+
+		@Benchmark
+		public Error error() {
+			try {
+				new JSONStringer().bean(fatal);
+				throw new IllegalStateException("getter抛出的Error没有被重新抛出");
+			} catch (Error e) {
+				return e;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.mxy.air.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 宽松模式和严格模式的解析速度对比
+ *
+ * @author mengxiangyun
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrictBenchmark {
+
+	private String text;
+
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < 20000; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append("{\"id\":").append(i).append(",\"name\":\"user").append(i).append("\",\"score\":")
+					.append(i * 1.5).append(",\"tags\":[\"a\",\"b\"],\"active\":true,\"ref\":null}");
+		}
+		text = builder.append(']').toString();
+		bytes = text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public Object charsRelaxed() {
+		return new JSONTokener(text).nextValue();
+	}
+
+	@Benchmark
+	public Object charsStrict() {
+		return new JSONTokener(text).setStrict(true).nextValue();
+	}
+
+	@Benchmark
+	public Object bytesRelaxed() {
+		return new JSONTokener(bytes).nextValue();
+	}
+
+	@Benchmark
+	public Object bytesStrict() {
+		return new JSONTokener(bytes).setStrict(true).nextValue();
+	}
+
+}
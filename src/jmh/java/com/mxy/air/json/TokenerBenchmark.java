@@ -0,0 +1,69 @@
+package com.mxy.air.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 字符输入和UTF-8字节输入的解析速度对比, 字节输入按8字节一组扫描空白, 字符串和字面量
+ *
+ * @author mengxiangyun
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenerBenchmark {
+
+	/* 每个值前后的空白数量 */
+	@Param({ "0", "32" })
+	public int padding;
+
+	private String text;
+
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		StringBuilder pad = new StringBuilder();
+		for (int i = 0; i < padding; i++) {
+			pad.append(' ');
+		}
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < 20000; i++) {
+			if (i > 0) {
+				builder.append(",\n");
+			}
+			builder.append(pad).append('{').append(pad).append("\"name\"").append(pad).append(':').append(pad)
+					.append("\"some fairly long name value here, lorem ipsum dolor sit amet").append(i).append('"')
+					.append(pad).append('}');
+		}
+		text = builder.append(']').toString();
+		bytes = text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public Object chars() {
+		return new JSONTokener(text).nextValue();
+	}
+
+	@Benchmark
+	public Object bytes() {
+		return new JSONTokener(bytes).nextValue();
+	}
+
+}
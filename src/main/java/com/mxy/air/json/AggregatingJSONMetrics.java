@@ -0,0 +1,177 @@
+package com.mxy.air.json;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 汇总所有解析和格式化统计数据的JSONMetrics实现, 线程安全
+ * 
+ * @author mengxiangyun
+ *
+ */
+public class AggregatingJSONMetrics implements JSONMetrics {
+
+	private final Counters parse = new Counters();
+
+	private final Counters serialize = new Counters();
+
+	@Override
+	public void parsed(JSONStatistics statistics) {
+		parse.add(statistics);
+	}
+
+	@Override
+	public void parseFailed(RuntimeException e, int position) {
+		parse.failures.increment();
+	}
+
+	@Override
+	public void serialized(JSONStatistics statistics) {
+		serialize.add(statistics);
+	}
+
+	@Override
+	public void serializeFailed(RuntimeException e) {
+		serialize.failures.increment();
+	}
+
+	/**
+	 * 解析的统计数据
+	 * 
+	 * @return
+	 */
+	public Counters getParse() {
+		return parse;
+	}
+
+	/**
+	 * 格式化的统计数据
+	 * 
+	 * @return
+	 */
+	public Counters getSerialize() {
+		return serialize;
+	}
+
+	/**
+	 * 清空所有统计数据
+	 */
+	public void reset() {
+		parse.reset();
+		serialize.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "AggregatingJSONMetrics [parse=" + parse + ", serialize=" + serialize + "]";
+	}
+
+	/**
+	 * 一类操作的累计数据
+	 */
+	public static class Counters {
+
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		private final LongAdder length = new LongAdder();
+
+		private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+
+		private final LongAdder objects = new LongAdder();
+
+		private final LongAdder arrays = new LongAdder();
+
+		private final LongAdder strings = new LongAdder();
+
+		private final LongAdder numbers = new LongAdder();
+
+		private final LongAdder failures = new LongAdder();
+
+		/* 每次操作分配的内存字节数 */
+		private final LatencyHistogram allocations = new LatencyHistogram();
+
+		private void add(JSONStatistics statistics) {
+			latency.record(statistics.getNanos());
+			length.add(statistics.getLength());
+			maxDepth.accumulate(statistics.getMaxDepth());
+			objects.add(statistics.getObjects());
+			arrays.add(statistics.getArrays());
+			strings.add(statistics.getStrings());
+			numbers.add(statistics.getNumbers());
+			if (statistics.getAllocatedBytes() >= 0) {
+				allocations.record(statistics.getAllocatedBytes());
+			}
+		}
+
+		private void reset() {
+			latency.reset();
+			length.reset();
+			maxDepth.reset();
+			objects.reset();
+			arrays.reset();
+			strings.reset();
+			numbers.reset();
+			failures.reset();
+			allocations.reset();
+		}
+
+		/**
+		 * 耗时直方图, 纳秒
+		 * 
+		 * @return
+		 */
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		/**
+		 * 每次操作分配的内存字节数的直方图, JVM不支持线程内存统计时为空
+		 * 
+		 * @return
+		 */
+		public LatencyHistogram getAllocations() {
+			return allocations;
+		}
+
+		public long getCount() {
+			return latency.getCount();
+		}
+
+		public long getLength() {
+			return length.sum();
+		}
+
+		public long getMaxDepth() {
+			return maxDepth.get();
+		}
+
+		public long getObjects() {
+			return objects.sum();
+		}
+
+		public long getArrays() {
+			return arrays.sum();
+		}
+
+		public long getStrings() {
+			return strings.sum();
+		}
+
+		public long getNumbers() {
+			return numbers.sum();
+		}
+
+		public long getFailures() {
+			return failures.sum();
+		}
+
+		@Override
+		public String toString() {
+			return "Counters [count=" + getCount() + ", length=" + getLength() + ", maxDepth=" + getMaxDepth()
+					+ ", objects=" + getObjects() + ", arrays=" + getArrays() + ", strings=" + getStrings()
+					+ ", numbers=" + getNumbers() + ", failures=" + getFailures() + ", latency=" + latency + ", allocations=" + allocations + "]";
+		}
+
+	}
+
+}
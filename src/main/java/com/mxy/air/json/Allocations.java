@@ -0,0 +1,53 @@
+package com.mxy.air.json;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 读取当前线程累计分配的内存字节数, JVM不支持或者没有启用线程内存分配统计时返回-1.
+ * HotSpot默认启用, 这里不修改JVM的全局设置
+ * 
+ * @author mengxiangyun
+ *
+ */
+final class Allocations {
+
+	private static final com.sun.management.ThreadMXBean THREADS;
+
+	static {
+		com.sun.management.ThreadMXBean threads = null;
+		try {
+			java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean) {
+				threads = (com.sun.management.ThreadMXBean) bean;
+				if (!threads.isThreadAllocatedMemorySupported()) {
+					threads = null;
+				}
+			}
+		} catch (RuntimeException | LinkageError e) {
+			threads = null;
+		}
+		THREADS = threads;
+	}
+
+	private Allocations() {
+	}
+
+	/**
+	 * 当前线程累计分配的字节数, 没有启用统计时为-1
+	 */
+	static long current() {
+		return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * 从start开始分配的字节数, 不支持时返回-1
+	 */
+	static long since(long start) {
+		if (start < 0) {
+			return -1;
+		}
+		long current = current();
+		return current < 0 ? -1 : current - start;
+	}
+
+}
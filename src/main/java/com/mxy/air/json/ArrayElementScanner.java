@@ -0,0 +1,158 @@
+package com.mxy.air.json;
+
+/**
+ * 顶层JSON数组的结构扫描, 逐个字符输入, 找出每个元素的开始和结束位置, 不解析元素的内容.
+ * 会跳过字符串和注释中的括号和分隔符
+ * 
+ * @author mengxiangyun
+ *
+ */
+class ArrayElementScanner {
+
+	/* feed()的返回值, 可以同时出现多个 */
+	static final int ELEMENT_START = 1; // 元素从当前字符开始
+	static final int ELEMENT_END = 2; // 元素在当前字符之前结束
+	static final int ARRAY_END = 4; // 当前字符是数组的结束符']'
+
+	private static final int BEFORE_ARRAY = 0;
+	private static final int BETWEEN = 1;
+	private static final int IN_ELEMENT = 2;
+	private static final int DONE = 3;
+
+	private static final int NO_COMMENT = 0;
+	private static final int LINE_COMMENT = 1;
+	private static final int BLOCK_COMMENT = 2;
+
+	private int state = BEFORE_ARRAY;
+
+	/* 括号层级, 数组本身为1 */
+	private int depth;
+
+	/* 当前所在字符串的引号, 不在字符串中时为0 */
+	private char quote;
+
+	private boolean escape;
+
+	private int comment = NO_COMMENT;
+
+	/* 上一个字符是否为'/', 或块注释中的'*' */
+	private boolean pending;
+
+	/**
+	 * 输入下一个字符
+	 * 
+	 * @param ch
+	 * @return 事件标记
+	 */
+	int feed(char ch) {
+		if (quote != 0) {
+			if (escape) {
+				escape = false;
+			} else if (ch == '\\') {
+				escape = true;
+			} else if (ch == quote) {
+				quote = 0;
+			}
+			return 0;
+		}
+		if (comment == LINE_COMMENT) {
+			if (ch == '\n' || ch == '\r') {
+				comment = NO_COMMENT;
+			}
+			return 0;
+		}
+		if (comment == BLOCK_COMMENT) {
+			if (pending && ch == '/') {
+				comment = NO_COMMENT;
+				pending = false;
+			} else {
+				pending = ch == '*';
+			}
+			return 0;
+		}
+		if (pending) {
+			pending = false;
+			if (ch == '/') {
+				comment = LINE_COMMENT;
+				return 0;
+			}
+			if (ch == '*') {
+				comment = BLOCK_COMMENT;
+				return 0;
+			}
+		}
+		if (ch == '/') {
+			pending = true;
+			return 0;
+		}
+		if (ch == '#') {
+			comment = LINE_COMMENT;
+			return 0;
+		}
+		switch (state) {
+		case BEFORE_ARRAY:
+			if (ch == '[') {
+				state = BETWEEN;
+				depth = 1;
+			} else if (!isWhitespace(ch)) {
+				throw new JSONException("顶层的值不是JSON数组");
+			}
+			return 0;
+		case BETWEEN:
+			if (isWhitespace(ch) || ch == ',' || ch == ';') {
+				return 0;
+			}
+			if (ch == ']') {
+				state = DONE;
+				return ARRAY_END;
+			}
+			state = IN_ELEMENT;
+			return ELEMENT_START | element(ch);
+		case IN_ELEMENT:
+			return element(ch);
+		default:
+			return 0;
+		}
+	}
+
+	private int element(char ch) {
+		switch (ch) {
+		case '"':
+		case '\'':
+			quote = ch;
+			return 0;
+		case '{':
+		case '[':
+			depth++;
+			return 0;
+		case '}':
+		case ']':
+			if (--depth == 0) {
+				state = DONE;
+				return ELEMENT_END | ARRAY_END;
+			}
+			return 0;
+		case ',':
+		case ';':
+			if (depth == 1) {
+				state = BETWEEN;
+				return ELEMENT_END;
+			}
+			return 0;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * 是否已读取到数组的结束符
+	 */
+	boolean isDone() {
+		return state == DONE;
+	}
+
+	private static boolean isWhitespace(char ch) {
+		return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r';
+	}
+
+}
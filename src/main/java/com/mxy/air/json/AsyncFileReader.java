@@ -0,0 +1,209 @@
+package com.mxy.air.json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 基于AsynchronousFileChannel的异步文件读取
+ * 打开文件和解析文件内容都在指定的线程池中执行, 读取文件时不阻塞调用线程.
+ * 同时进行的读取数量有上限, 超出上限的读取请求排队等待, 不会阻塞任何线程.
+ *
+ * @author mengxiangyun
+ *
+ */
+class AsyncFileReader {
+
+	/* 打开和解析文件的线程池 */
+	private volatile Executor executor = ForkJoinPool.commonPool();
+
+	/* 同时进行的最大读取数量 */
+	private volatile int maxConcurrentReads = Runtime.getRuntime().availableProcessors() * 2;
+
+	/* 当前正在进行的读取数量 */
+	private final AtomicInteger activeReads = new AtomicInteger();
+
+	/* 等待读取的任务 */
+	private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+	void setExecutor(Executor executor) {
+		if (executor == null) {
+			throw new JSONException("executor 不能为空");
+		}
+		this.executor = executor;
+	}
+
+	void setMaxConcurrentReads(int maxConcurrentReads) {
+		if (maxConcurrentReads < 1) {
+			throw new JSONException("最大并发读取数量必须大于0");
+		}
+		this.maxConcurrentReads = maxConcurrentReads;
+		drain();
+	}
+
+	/**
+	 * 异步读取文件, 读取完成后在线程池中用parser解析文件内容
+	 * 取消返回的future会关闭文件通道并中止读取, 已取消的读取不会再解析
+	 *
+	 * @param path
+	 * @param parser
+	 * @return
+	 */
+	<T> CompletableFuture<T> read(Path path, Function<String, T> parser) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		if (path == null) {
+			future.complete(null);
+			return future;
+		}
+		pending.add(() -> start(path, parser, future));
+		drain();
+		return future;
+	}
+
+	/**
+	 * 在并发数量允许的范围内启动等待中的读取任务
+	 */
+	private void drain() {
+		while (!pending.isEmpty()) {
+			int active = activeReads.get();
+			if (active >= maxConcurrentReads) {
+				return;
+			}
+			if (!activeReads.compareAndSet(active, active + 1)) {
+				continue;
+			}
+			Runnable task = pending.poll();
+			if (task == null) {
+				activeReads.decrementAndGet();
+				continue;
+			}
+			task.run();
+		}
+	}
+
+	private void release() {
+		activeReads.decrementAndGet();
+		drain();
+	}
+
+	/**
+	 * 在线程池中打开文件, 调用drain()的线程不执行任何文件操作
+	 */
+	private <T> void start(Path path, Function<String, T> parser, CompletableFuture<T> future) {
+		if (future.isDone()) { // 排队期间已被取消
+			release();
+			return;
+		}
+		try {
+			executor.execute(() -> open(path, parser, future));
+		} catch (RuntimeException e) {
+			release();
+			future.completeExceptionally(e);
+		}
+	}
+
+	private <T> void open(Path path, Function<String, T> parser, CompletableFuture<T> future) {
+		if (future.isDone()) {
+			release();
+			return;
+		}
+		AsynchronousFileChannel channel;
+		ByteBuffer buffer;
+		try {
+			channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ);
+		} catch (Throwable e) {
+			release();
+			future.completeExceptionally(e);
+			return;
+		}
+		try {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new JSONException("文件过大: " + path);
+			}
+			buffer = ByteBuffer.allocate((int) size);
+		} catch (Throwable e) {
+			closeQuietly(channel);
+			release();
+			future.completeExceptionally(e);
+			return;
+		}
+		// 取消时关闭通道, 正在进行的读取会以AsynchronousCloseException结束
+		future.whenComplete((r, e) -> {
+			if (future.isCancelled()) {
+				closeQuietly(channel);
+			}
+		});
+		CompletionHandler<Integer, ByteBuffer> handler = new CompletionHandler<Integer, ByteBuffer>() {
+
+			/* 通道关闭和释放并发数量只执行一次 */
+			private final AtomicBoolean finished = new AtomicBoolean();
+
+			@Override
+			public void completed(Integer result, ByteBuffer attachment) {
+				try {
+					if (result >= 0 && attachment.hasRemaining() && !future.isDone()) {
+						channel.read(attachment, attachment.position(), attachment, this);
+						return;
+					}
+					finish();
+					if (future.isDone()) {
+						return;
+					}
+					attachment.flip();
+					executor.execute(() -> {
+						if (future.isDone()) {
+							return;
+						}
+						try {
+							future.complete(parser.apply(Compression.decode(attachment)));
+						} catch (Throwable e) {
+							future.completeExceptionally(e);
+						}
+					});
+				} catch (Throwable e) {
+					finish();
+					future.completeExceptionally(e);
+				}
+			}
+
+			@Override
+			public void failed(Throwable exc, ByteBuffer attachment) {
+				finish();
+				future.completeExceptionally(exc);
+			}
+
+			private void finish() {
+				if (finished.compareAndSet(false, true)) {
+					closeQuietly(channel);
+					release();
+				}
+			}
+		};
+		try {
+			channel.read(buffer, 0, buffer, handler);
+		} catch (Throwable e) {
+			handler.failed(e, buffer);
+		}
+	}
+
+	private static void closeQuietly(AsynchronousFileChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+
+}
@@ -0,0 +1,633 @@
+package com.mxy.air.json;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 从JSONTokener直接读取值并写入JavaBean的setter或字段, 不创建中间的JSONObject和JSONArray.
+ * 每个类的属性, 构造器和setter的MethodHandle只解析一次并缓存, 基本类型的属性通过对应签名的MethodHandle赋值, 不需要装箱.
+ * 没有对应属性的key通过JSONTokener跳过, 不创建值
+ *
+ * @author mengxiangyun
+ *
+ */
+final class BeanBinder {
+
+	/* 值的类型 */
+	private static final int BOOLEAN = 0;
+	private static final int INT = 1;
+	private static final int LONG = 2;
+	private static final int SHORT = 3;
+	private static final int BYTE = 4;
+	private static final int CHAR = 5;
+	private static final int FLOAT = 6;
+	private static final int DOUBLE = 7;
+	private static final int STRING = 8;
+	private static final int BIG_DECIMAL = 9;
+	private static final int BIG_INTEGER = 10;
+	private static final int ENUM = 11;
+	private static final int COLLECTION = 12;
+	private static final int ARRAY = 13;
+	private static final int MAP = 14;
+	private static final int BEAN = 15;
+	/* 按原来的方式解析为JSONObject, JSONArray或其他值 */
+	private static final int ANY = 16;
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final ClassValue<BeanInfo> beans = new ClassValue<BeanInfo>() {
+
+		@Override
+		protected BeanInfo computeValue(Class<?> type) {
+			return new BeanInfo(type);
+		}
+	};
+
+	/* 没有泛型参数的类型对应的Target */
+	private static final ClassValue<Target> targets = new ClassValue<Target>() {
+
+		@Override
+		protected Target computeValue(Class<?> type) {
+			return new Target(type);
+		}
+	};
+
+	private BeanBinder() {
+	}
+
+	/**
+	 * 读取一个值并绑定为type类型的对象, first为值的第一个非空字符, 已被读取
+	 */
+	static Object read(JSONTokener tokener, Type type, char first) {
+		return read(tokener, target(type), first);
+	}
+
+	private static Target target(Type type) {
+		return type instanceof Class ? targets.get((Class<?>) type) : new Target(type);
+	}
+
+	private static Object read(JSONTokener tokener, Target target, char first) {
+		if (target.kind == ANY) {
+			Object value = tokener.value(first);
+			if (value != null && !target.raw.isInstance(value)) {
+				throw tokener.error("值的类型" + value.getClass().getSimpleName() + "与" + target.raw.getSimpleName() + "不匹配");
+			}
+			return value;
+		}
+		if (tokener.nextNull(first)) {
+			return null;
+		}
+		switch (target.kind) {
+		case BOOLEAN:
+			scalar(tokener, first, "布尔值");
+			return tokener.nextBoolean(first);
+		case INT:
+			return toInt(tokener, nextLong(tokener, first));
+		case LONG:
+			return nextLong(tokener, first);
+		case SHORT:
+			return toShort(tokener, nextLong(tokener, first));
+		case BYTE:
+			return toByte(tokener, nextLong(tokener, first));
+		case CHAR:
+			return toChar(tokener, nextText(tokener, first));
+		case FLOAT:
+			return (float) nextDouble(tokener, first);
+		case DOUBLE:
+			return nextDouble(tokener, first);
+		case STRING:
+			return nextText(tokener, first);
+		case BIG_DECIMAL:
+			return new BigDecimal(number(tokener, first));
+		case BIG_INTEGER:
+			return new BigInteger(number(tokener, first));
+		case ENUM:
+			return target.constant(tokener, nextText(tokener, first));
+		case COLLECTION:
+			return readCollection(tokener, target, first);
+		case ARRAY:
+			return readArray(tokener, target, first);
+		case MAP:
+			return readMap(tokener, target, first);
+		default:
+			return readBean(tokener, beans.get(target.raw), first);
+		}
+	}
+
+	/**
+	 * 基本类型的值不能是对象或数组
+	 */
+	private static void scalar(JSONTokener tokener, char first, String expected) {
+		if (first == '{' || first == '[') {
+			throw tokener.error(tokener.position() - 1, "应为" + expected);
+		}
+	}
+
+	private static long nextLong(JSONTokener tokener, char first) {
+		scalar(tokener, first, "数值");
+		return tokener.nextLong(first);
+	}
+
+	private static double nextDouble(JSONTokener tokener, char first) {
+		scalar(tokener, first, "数值");
+		return tokener.nextDouble(first);
+	}
+
+	private static String nextText(JSONTokener tokener, char first) {
+		scalar(tokener, first, "字符串");
+		return tokener.nextText(first);
+	}
+
+	private static String number(JSONTokener tokener, char first) {
+		int start = tokener.position() - 1;
+		String text = nextText(tokener, first);
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			if ((ch < '0' || ch > '9') && ch != '-' && ch != '+' && ch != '.' && ch != 'e' && ch != 'E') {
+				throw tokener.error(start, "应为数值");
+			}
+		}
+		if (text.isEmpty()) {
+			throw tokener.error(start, "应为数值");
+		}
+		return text;
+	}
+
+	private static int toInt(JSONTokener tokener, long value) {
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw tokener.error("数值超出范围");
+		}
+		return (int) value;
+	}
+
+	private static short toShort(JSONTokener tokener, long value) {
+		if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+			throw tokener.error("数值超出范围");
+		}
+		return (short) value;
+	}
+
+	private static byte toByte(JSONTokener tokener, long value) {
+		if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+			throw tokener.error("数值超出范围");
+		}
+		return (byte) value;
+	}
+
+	private static char toChar(JSONTokener tokener, String text) {
+		if (text == null || text.length() != 1) {
+			throw tokener.error("应为一个字符");
+		}
+		return text.charAt(0);
+	}
+
+	private static void expect(JSONTokener tokener, char first, char open) {
+		if (first != open) {
+			throw tokener.error(tokener.position() - 1, "应为'" + open + "'");
+		}
+	}
+
+	private static Collection<Object> readCollection(JSONTokener tokener, Target target, char first) {
+		expect(tokener, first, '[');
+		tokener.enter('[');
+		Collection<Object> collection = target.newInstance(tokener);
+		boolean afterValue = false;
+		char ch;
+		while ((ch = tokener.nextElement(']', afterValue)) != ']') {
+			collection.add(read(tokener, target.element, ch));
+			afterValue = true;
+		}
+		tokener.exit();
+		return collection;
+	}
+
+	private static Object readArray(JSONTokener tokener, Target target, char first) {
+		expect(tokener, first, '[');
+		tokener.enter('[');
+		List<Object> list = new ArrayList<>();
+		boolean afterValue = false;
+		char ch;
+		while ((ch = tokener.nextElement(']', afterValue)) != ']') {
+			list.add(read(tokener, target.element, ch));
+			afterValue = true;
+		}
+		tokener.exit();
+		Class<?> componentType = target.raw.getComponentType();
+		Object array = Array.newInstance(componentType, list.size());
+		for (int i = 0; i < list.size(); i++) {
+			Object value = list.get(i);
+			// 基本类型数组中的null保留默认值
+			if (value != null || !componentType.isPrimitive()) {
+				Array.set(array, i, value);
+			}
+		}
+		return array;
+	}
+
+	private static Map<String, Object> readMap(JSONTokener tokener, Target target, char first) {
+		expect(tokener, first, '{');
+		tokener.enter('{');
+		Map<String, Object> map = target.newInstance(tokener);
+		boolean afterValue = false;
+		char ch;
+		while ((ch = tokener.nextElement('}', afterValue)) != '}') {
+			String key = tokener.nextKey(ch);
+			map.put(key, read(tokener, target.element, tokener.nextClean()));
+			afterValue = true;
+		}
+		tokener.exit();
+		return map;
+	}
+
+	private static Object readBean(JSONTokener tokener, BeanInfo info, char first) {
+		expect(tokener, first, '{');
+		tokener.enter('{');
+		Object bean = info.newInstance(tokener);
+		boolean afterValue = false;
+		char ch;
+		while ((ch = tokener.nextElement('}', afterValue)) != '}') {
+			Property property = info.properties.get(tokener.nextKey(ch));
+			char valueFirst = tokener.nextClean();
+			if (property == null) {
+				tokener.skip(valueFirst);
+			} else {
+				property.bind(tokener, bean, valueFirst);
+			}
+			afterValue = true;
+		}
+		tokener.exit();
+		return bean;
+	}
+
+	/**
+	 * 绑定的目标类型
+	 */
+	private static final class Target {
+
+		final int kind;
+
+		final Class<?> raw;
+
+		/* 集合, 数组的元素或Map的值的类型 */
+		final Target element;
+
+		/* 集合或Map的构造器 */
+		private final Constructor<?> constructor;
+
+		/* 枚举名称对应的值 */
+		private final Map<String, Object> constants;
+
+		Target(Type type) {
+			this.raw = rawType(type);
+			Target element = null;
+			Constructor<?> constructor = null;
+			Map<String, Object> constants = null;
+			if (raw == boolean.class || raw == Boolean.class) {
+				kind = BOOLEAN;
+			} else if (raw == int.class || raw == Integer.class) {
+				kind = INT;
+			} else if (raw == long.class || raw == Long.class) {
+				kind = LONG;
+			} else if (raw == short.class || raw == Short.class) {
+				kind = SHORT;
+			} else if (raw == byte.class || raw == Byte.class) {
+				kind = BYTE;
+			} else if (raw == char.class || raw == Character.class) {
+				kind = CHAR;
+			} else if (raw == float.class || raw == Float.class) {
+				kind = FLOAT;
+			} else if (raw == double.class || raw == Double.class) {
+				kind = DOUBLE;
+			} else if (raw == String.class || raw == CharSequence.class) {
+				kind = STRING;
+			} else if (raw == BigDecimal.class) {
+				kind = BIG_DECIMAL;
+			} else if (raw == BigInteger.class) {
+				kind = BIG_INTEGER;
+			} else if (raw.isEnum()) {
+				kind = ENUM;
+				constants = new HashMap<>();
+				for (Object constant : raw.getEnumConstants()) {
+					constants.put(((Enum<?>) constant).name(), constant);
+				}
+			} else if (raw.isArray()) {
+				kind = ARRAY;
+				element = target(type instanceof GenericArrayType ? ((GenericArrayType) type).getGenericComponentType()
+						: raw.getComponentType());
+			} else if (JSON.class.isAssignableFrom(raw)) { // JSONObject和JSONArray按原来的方式解析
+				kind = ANY;
+			} else if (Collection.class.isAssignableFrom(raw)) {
+				kind = COLLECTION;
+				element = target(typeArgument(type, 0));
+				constructor = constructor(implementation(raw));
+			} else if (Map.class.isAssignableFrom(raw)) {
+				kind = MAP;
+				Type keyType = typeArgument(type, 0);
+				if (keyType != Object.class && keyType != String.class) {
+					throw new JSONException("Map的key只能是String, 不支持" + keyType.getTypeName());
+				}
+				element = target(typeArgument(type, 1));
+				constructor = constructor(implementation(raw));
+			} else if (raw == Object.class || raw.isInterface() || Modifier.isAbstract(raw.getModifiers())
+					|| raw.isPrimitive() || Number.class.isAssignableFrom(raw)) {
+				kind = ANY;
+			} else {
+				kind = BEAN;
+			}
+			this.element = element;
+			this.constructor = constructor;
+			this.constants = constants;
+		}
+
+		@SuppressWarnings("unchecked")
+		<T> T newInstance(JSONTokener tokener) {
+			if (constructor == null) {
+				throw tokener.error("无法创建" + raw.getName() + "的实例, 没有无参构造器");
+			}
+			try {
+				return (T) constructor.newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new JSONException("创建" + raw.getName() + "的实例失败", e);
+			}
+		}
+
+		Object constant(JSONTokener tokener, String name) {
+			if (name == null) {
+				return null;
+			}
+			Object constant = constants.get(name);
+			if (constant == null) {
+				// 枚举名称通常为大写, json中可能为小写
+				for (Object value : constants.values()) {
+					if (((Enum<?>) value).name().equalsIgnoreCase(name)) {
+						return value;
+					}
+				}
+				throw tokener.error("枚举" + raw.getSimpleName() + "中不存在[" + name + "]");
+			}
+			return constant;
+		}
+	}
+
+	/**
+	 * 类型对应的Class, 泛型变量按上界处理
+	 */
+	private static Class<?> rawType(Type type) {
+		if (type instanceof Class) {
+			return (Class<?>) type;
+		} else if (type instanceof ParameterizedType) {
+			return rawType(((ParameterizedType) type).getRawType());
+		} else if (type instanceof GenericArrayType) {
+			return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+		} else if (type instanceof WildcardType) {
+			return rawType(((WildcardType) type).getUpperBounds()[0]);
+		}
+		return Object.class;
+	}
+
+	/**
+	 * 泛型参数, 没有泛型参数时为Object
+	 */
+	private static Type typeArgument(Type type, int index) {
+		if (type instanceof ParameterizedType) {
+			Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+			if (index < arguments.length) {
+				Type argument = arguments[index];
+				return argument instanceof WildcardType ? ((WildcardType) argument).getUpperBounds()[0] : argument;
+			}
+		}
+		return Object.class;
+	}
+
+	/**
+	 * 集合或Map的接口和抽象类对应的实现类
+	 */
+	private static Class<?> implementation(Class<?> type) {
+		if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+			return type;
+		}
+		if (Map.class.isAssignableFrom(type)) {
+			return SortedMap.class.isAssignableFrom(type) ? TreeMap.class : LinkedHashMap.class;
+		}
+		if (SortedSet.class.isAssignableFrom(type)) {
+			return TreeSet.class;
+		}
+		if (Set.class.isAssignableFrom(type)) {
+			return LinkedHashSet.class;
+		}
+		return Queue.class.isAssignableFrom(type) ? LinkedList.class : ArrayList.class;
+	}
+
+	/**
+	 * 无参构造器, 不存在或无法访问时返回null
+	 */
+	private static Constructor<?> constructor(Class<?> type) {
+		try {
+			Constructor<?> constructor = type.getDeclaredConstructor();
+			return accessible(constructor) ? constructor : null;
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static boolean accessible(AccessibleObject member) {
+		try {
+			member.setAccessible(true);
+			return true;
+		} catch (RuntimeException e) { // 模块不开放时无法访问
+			return false;
+		}
+	}
+
+	/**
+	 * 类的构造器和属性
+	 */
+	private static final class BeanInfo {
+
+		private final Class<?> type;
+
+		private final Constructor<?> constructor;
+
+		/* key对应的属性 */
+		final Map<String, Property> properties = new HashMap<>();
+
+		BeanInfo(Class<?> type) {
+			this.type = type;
+			this.constructor = Modifier.isAbstract(type.getModifiers()) ? null : constructor(type);
+			// 字段, 子类的字段优先
+			for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isTransient(modifiers)
+							|| field.isSynthetic() || properties.containsKey(field.getName()) || !accessible(field)) {
+						continue;
+					}
+					try {
+						properties.put(field.getName(),
+								new Property(field.getName(), field.getGenericType(), LOOKUP.unreflectSetter(field)));
+					} catch (IllegalAccessException e) {
+						// 无法访问的字段不绑定
+					}
+				}
+			}
+			// setter优先于字段, 与JSONObject.toBean()一致, key首字母大写后加上"set"前缀即为setter的名称
+			Map<String, Method> setters = new HashMap<>();
+			for (Method method : type.getMethods()) {
+				String name = method.getName();
+				if (name.length() <= 3 || !name.startsWith("set") || method.getParameterCount() != 1
+						|| Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+					continue;
+				}
+				String suffix = name.substring(3);
+				Method existing = setters.get(suffix);
+				// 重载的setter优先选择参数类型与同名字段相同的
+				if (existing != null) {
+					Property field = properties.get(decapitalize(suffix));
+					if (field == null || field.raw != method.getParameterTypes()[0]) {
+						continue;
+					}
+				}
+				setters.put(suffix, method);
+			}
+			for (Map.Entry<String, Method> entry : setters.entrySet()) {
+				Method method = entry.getValue();
+				if (!accessible(method)) {
+					continue;
+				}
+				String suffix = entry.getKey();
+				Property property;
+				try {
+					property = new Property(suffix, method.getGenericParameterTypes()[0], LOOKUP.unreflect(method));
+				} catch (IllegalAccessException e) {
+					continue;
+				}
+				properties.put(suffix, property);
+				properties.put(decapitalize(suffix), property);
+			}
+		}
+
+		private static String decapitalize(String name) {
+			return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+		}
+
+		Object newInstance(JSONTokener tokener) {
+			if (constructor == null) {
+				throw tokener.error("无法创建" + type.getName() + "的实例, 没有无参构造器");
+			}
+			try {
+				return constructor.newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new JSONException("创建" + type.getName() + "的实例失败", e);
+			}
+		}
+	}
+
+	/**
+	 * 属性, setter或字段统一为(Object, 值)的MethodHandle, 基本类型的值不装箱
+	 */
+	private static final class Property {
+
+		private final String name;
+
+		final Class<?> raw;
+
+		private final Type type;
+
+		/* 属性类型对应的Target, 第一次绑定时创建, 避免类型相互引用时递归解析 */
+		private Target target;
+
+		private final MethodHandle setter;
+
+		Property(String name, Type type, MethodHandle setter) {
+			this.name = name;
+			this.type = type;
+			this.raw = rawType(type);
+			Class<?> valueType = raw.isPrimitive() ? raw : Object.class;
+			this.setter = setter.asType(MethodType.methodType(void.class, Object.class, valueType));
+		}
+
+		void bind(JSONTokener tokener, Object bean, char first) {
+			if (raw.isPrimitive()) {
+				bindPrimitive(tokener, bean, first);
+				return;
+			}
+			Target target = this.target;
+			if (target == null) {
+				this.target = target = target(type);
+			}
+			Object value = read(tokener, target, first);
+			try {
+				setter.invokeExact(bean, value);
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw failed(e);
+			}
+		}
+
+		private void bindPrimitive(JSONTokener tokener, Object bean, char first) {
+			if (tokener.nextNull(first)) { // 保留默认值
+				return;
+			}
+			try {
+				if (raw == int.class) {
+					setter.invokeExact(bean, toInt(tokener, nextLong(tokener, first)));
+				} else if (raw == long.class) {
+					setter.invokeExact(bean, nextLong(tokener, first));
+				} else if (raw == double.class) {
+					setter.invokeExact(bean, nextDouble(tokener, first));
+				} else if (raw == boolean.class) {
+					scalar(tokener, first, "布尔值");
+					setter.invokeExact(bean, tokener.nextBoolean(first));
+				} else if (raw == float.class) {
+					setter.invokeExact(bean, (float) nextDouble(tokener, first));
+				} else if (raw == short.class) {
+					setter.invokeExact(bean, toShort(tokener, nextLong(tokener, first)));
+				} else if (raw == byte.class) {
+					setter.invokeExact(bean, toByte(tokener, nextLong(tokener, first)));
+				} else {
+					setter.invokeExact(bean, toChar(tokener, nextText(tokener, first)));
+				}
+			} catch (JSONException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw failed(e);
+			}
+		}
+
+		/**
+		 * setter抛出的异常包装为JSONException, Error直接抛出
+		 */
+		private JSONException failed(Throwable e) {
+			return new JSONException("设置属性[" + name + "]失败", e);
+		}
+	}
+
+}
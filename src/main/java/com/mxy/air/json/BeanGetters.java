@@ -0,0 +1,133 @@
+package com.mxy.air.json;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JavaBean的getter缓存, 用于JSONStringer直接输出JavaBean. 规则与JSONObject(Object)相同:
+ * 类中声明的公共, 非静态, 没有参数且有返回值的get或is方法, key为去掉前缀后首字母小写的名称.
+ * 每个类只解析一次, getter转换为MethodHandle, 基本类型的返回值不装箱
+ *
+ * @author mengxiangyun
+ *
+ */
+final class BeanGetters {
+
+	/* 返回值的类型 */
+	static final int OBJECT = 0;
+	static final int INT = 1;
+	static final int LONG = 2;
+	static final int SHORT = 3;
+	static final int BYTE = 4;
+	static final int CHAR = 5;
+	static final int BOOLEAN = 6;
+	static final int FLOAT = 7;
+	static final int DOUBLE = 8;
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final ClassValue<Getter[]> getters = new ClassValue<Getter[]>() {
+
+		@Override
+		protected Getter[] computeValue(Class<?> type) {
+			// 与JSONObject(Object)一致, 同名的key保留第一次出现的位置, 值取后面的getter
+			Map<String, Getter> result = new LinkedHashMap<>();
+			for (Method method : type.getDeclaredMethods()) {
+				int modifiers = method.getModifiers();
+				if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers) || method.getParameterCount() != 0
+						|| method.getReturnType() == Void.TYPE) {
+					continue;
+				}
+				String name = method.getName();
+				String field;
+				if (name.startsWith("get")) {
+					field = name.substring(3);
+				} else if (name.startsWith("is")) {
+					field = name.substring(2);
+				} else {
+					continue;
+				}
+				if (field.length() == 0) {
+					continue;
+				}
+				field = field.substring(0, 1).toLowerCase() + field.substring(1);
+				MethodHandle handle;
+				try {
+					method.setAccessible(true);
+					handle = LOOKUP.unreflect(method);
+				} catch (IllegalAccessException | RuntimeException e) {
+					continue;
+				}
+				result.put(field, new Getter(field, method.getReturnType(), handle));
+			}
+			return result.values().toArray(new Getter[result.size()]);
+		}
+	};
+
+	private BeanGetters() {
+	}
+
+	static Getter[] of(Class<?> type) {
+		return getters.get(type);
+	}
+
+	/**
+	 * 是否按JavaBean输出. JDK中的类和枚举按字符串输出, 没有getter的类同样按字符串输出
+	 */
+	static boolean isBean(Class<?> type) {
+		return !type.getName().startsWith("java") && !Enum.class.isAssignableFrom(type) && of(type).length > 0;
+	}
+
+	private static int kind(Class<?> type) {
+		if (type == int.class) {
+			return INT;
+		} else if (type == long.class) {
+			return LONG;
+		} else if (type == short.class) {
+			return SHORT;
+		} else if (type == byte.class) {
+			return BYTE;
+		} else if (type == char.class) {
+			return CHAR;
+		} else if (type == boolean.class) {
+			return BOOLEAN;
+		} else if (type == float.class) {
+			return FLOAT;
+		} else if (type == double.class) {
+			return DOUBLE;
+		}
+		return OBJECT;
+	}
+
+	static final class Getter {
+
+		final String name;
+
+		final int kind;
+
+		/* (Object)返回值类型, 返回值不是基本类型时为(Object)Object */
+		final MethodHandle handle;
+
+		/* 转义后的key和分隔符 */
+		final String key;
+		final String separated;
+		final String prettyKey;
+
+		Getter(String name, Class<?> type, MethodHandle handle) {
+			this.name = name;
+			this.kind = kind(type);
+			this.handle = handle.asType(MethodType.methodType(type.isPrimitive() ? type : Object.class, Object.class));
+			StringBuilder escaped = new StringBuilder();
+			JSONStringer.escape(escaped, name);
+			this.key = escaped + ":";
+			this.separated = "," + key;
+			this.prettyKey = escaped + ": ";
+		}
+	}
+
+}
@@ -0,0 +1,366 @@
+package com.mxy.air.json;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * LZ4风格的块压缩, 纯Java实现, 压缩和解压速度优先于压缩率.
+ * 数据按块压缩, 每块最多64KB, 块内由若干序列组成, 每个序列为 token, 字面量, 2字节的匹配偏移量, 匹配长度.
+ * token的高4位为字面量长度, 低4位为匹配长度减4, 等于15时后面追加长度字节. 最后一个序列只有字面量.
+ *
+ * 文件格式: MAGIC, 然后是若干块, 每块为 原始长度(int), 压缩后长度(int, 最高位为1表示未压缩), 数据.
+ * 原始长度为0表示结束. 该格式只用于本库, 与lz4的frame格式不兼容
+ *
+ * @author mengxiangyun
+ *
+ */
+final class BlockCodec {
+
+	static final byte[] MAGIC = { 'A', 'J', 'L', 'Z' };
+
+	static final int BLOCK_SIZE = 1 << 16;
+
+	/* 未压缩的块的标志 */
+	private static final int STORED = 0x80000000;
+
+	/* 解压时允许的最大块大小, 防止损坏的数据导致分配过大的内存 */
+	private static final int MAX_BLOCK_SIZE = 1 << 24;
+
+	private static final int HASH_BITS = 14;
+
+	private static final int MIN_MATCH = 4;
+
+	/* 块末尾的字节只作为字面量, 保证解压时最后一个序列只有字面量 */
+	private static final int LAST_LITERALS = 5;
+	private static final int MATCH_LIMIT = 12;
+
+	private BlockCodec() {
+	}
+
+	/**
+	 * 压缩后的最大长度
+	 */
+	static int maxCompressedLength(int length) {
+		return length + length / 255 + 16;
+	}
+
+	private static int intAt(byte[] b, int i) {
+		return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+	}
+
+	/**
+	 * 压缩src中的length个字节到dst, 返回压缩后的长度. dst的长度至少为maxCompressedLength(length)
+	 *
+	 * @param src
+	 * @param length
+	 * @param dst
+	 * @param table
+	 *            hash表, 长度为1 << HASH_BITS, 可以重复使用
+	 * @return
+	 */
+	static int compress(byte[] src, int length, byte[] dst, int[] table) {
+		Arrays.fill(table, -1);
+		int anchor = 0;
+		int i = 0;
+		int d = 0;
+		int limit = length - MATCH_LIMIT;
+		while (i < limit) {
+			int sequence = intAt(src, i);
+			int h = (sequence * 0x9E3779B1) >>> (32 - HASH_BITS);
+			int ref = table[h];
+			table[h] = i;
+			if (ref < 0 || i - ref > 0xFFFF || intAt(src, ref) != sequence) {
+				i++;
+				continue;
+			}
+			int end = i + MIN_MATCH;
+			int maxEnd = length - LAST_LITERALS;
+			while (end < maxEnd && src[end] == src[ref + end - i]) {
+				end++;
+			}
+			d = sequence(src, anchor, i - anchor, dst, d, i - ref, end - i - MIN_MATCH);
+			i = end;
+			anchor = end;
+		}
+		return sequence(src, anchor, length - anchor, dst, d, 0, -1);
+	}
+
+	/**
+	 * 输出一个序列, match小于0时为只有字面量的最后一个序列
+	 */
+	private static int sequence(byte[] src, int literalStart, int literals, byte[] dst, int d, int offset,
+			int match) {
+		int token = d++;
+		int value = Math.min(literals, 15) << 4;
+		if (literals >= 15) {
+			d = length(dst, d, literals - 15);
+		}
+		System.arraycopy(src, literalStart, dst, d, literals);
+		d += literals;
+		if (match >= 0) {
+			dst[d++] = (byte) offset;
+			dst[d++] = (byte) (offset >>> 8);
+			value |= Math.min(match, 15);
+			if (match >= 15) {
+				d = length(dst, d, match - 15);
+			}
+		}
+		dst[token] = (byte) value;
+		return d;
+	}
+
+	private static int length(byte[] dst, int d, int n) {
+		while (n >= 255) {
+			dst[d++] = (byte) 255;
+			n -= 255;
+		}
+		dst[d++] = (byte) n;
+		return d;
+	}
+
+	/**
+	 * 解压src中的length个字节到dst, 解压后的长度必须为size
+	 *
+	 * @param src
+	 * @param length
+	 * @param dst
+	 * @param size
+	 * @throws IOException
+	 */
+	static void decompress(byte[] src, int length, byte[] dst, int size) throws IOException {
+		try {
+			int s = 0;
+			int d = 0;
+			while (true) {
+				int token = src[s++] & 0xFF;
+				int literals = token >>> 4;
+				if (literals == 15) {
+					int b;
+					do {
+						b = src[s++] & 0xFF;
+						literals += b;
+					} while (b == 255);
+				}
+				System.arraycopy(src, s, dst, d, literals);
+				s += literals;
+				d += literals;
+				if (s >= length) {
+					break;
+				}
+				int offset = (src[s++] & 0xFF) | (src[s++] & 0xFF) << 8;
+				int match = token & 15;
+				if (match == 15) {
+					int b;
+					do {
+						b = src[s++] & 0xFF;
+						match += b;
+					} while (b == 255);
+				}
+				match += MIN_MATCH;
+				int ref = d - offset;
+				if (offset == 0 || ref < 0 || d + match > size) {
+					throw new IOException("损坏的压缩数据");
+				}
+				// 匹配区域可能与输出重叠, 逐字节复制
+				for (int end = d + match; d < end;) {
+					dst[d++] = dst[ref++];
+				}
+			}
+			if (s != length || d != size) {
+				throw new IOException("损坏的压缩数据");
+			}
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("损坏的压缩数据", e);
+		}
+	}
+
+	/**
+	 * 压缩输出流
+	 */
+	static final class BlockOutputStream extends FilterOutputStream {
+
+		private final DataOutputStream data;
+
+		private final byte[] block = new byte[BLOCK_SIZE];
+
+		private final byte[] compressed = new byte[maxCompressedLength(BLOCK_SIZE)];
+
+		private final int[] table = new int[1 << HASH_BITS];
+
+		private int count;
+
+		private boolean closed;
+
+		BlockOutputStream(OutputStream out) throws IOException {
+			super(out);
+			this.data = new DataOutputStream(out);
+			data.write(MAGIC);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (count == BLOCK_SIZE) {
+				writeBlock();
+			}
+			block[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (count == BLOCK_SIZE) {
+					writeBlock();
+				}
+				int n = Math.min(len, BLOCK_SIZE - count);
+				System.arraycopy(b, off, block, count, n);
+				count += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		private void writeBlock() throws IOException {
+			if (count == 0) {
+				return;
+			}
+			int length = compress(block, count, compressed, table);
+			data.writeInt(count);
+			if (length < count) {
+				data.writeInt(length);
+				data.write(compressed, 0, length);
+			} else {
+				data.writeInt(count | STORED);
+				data.write(block, 0, count);
+			}
+			count = 0;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			writeBlock();
+			data.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				writeBlock();
+				data.writeInt(0);
+				data.flush();
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * 解压输入流, 每次解压一块
+	 */
+	static final class BlockInputStream extends InputStream {
+
+		private final DataInputStream data;
+
+		private byte[] compressed = new byte[0];
+
+		private byte[] block = new byte[0];
+
+		private int pos;
+
+		private int limit;
+
+		private boolean finished;
+
+		BlockInputStream(InputStream in) throws IOException {
+			this.data = new DataInputStream(in);
+			byte[] magic = new byte[MAGIC.length];
+			data.readFully(magic);
+			if (!Arrays.equals(magic, MAGIC)) {
+				throw new IOException("不是压缩数据");
+			}
+		}
+
+		/**
+		 * 读取下一块, 已结束时返回false
+		 */
+		private boolean nextBlock() throws IOException {
+			if (finished) {
+				return false;
+			}
+			int size;
+			int length;
+			try {
+				size = data.readInt();
+				if (size == 0) {
+					finished = true;
+					return false;
+				}
+				length = data.readInt();
+			} catch (EOFException e) {
+				throw new IOException("压缩数据不完整", e);
+			}
+			boolean stored = (length & STORED) != 0;
+			length &= ~STORED;
+			if (size < 0 || size > MAX_BLOCK_SIZE || length > MAX_BLOCK_SIZE || (stored && length != size)) {
+				throw new IOException("损坏的压缩数据");
+			}
+			if (block.length < size) {
+				block = new byte[size];
+			}
+			if (stored) {
+				data.readFully(block, 0, size);
+			} else {
+				if (compressed.length < length) {
+					compressed = new byte[length];
+				}
+				data.readFully(compressed, 0, length);
+				decompress(compressed, length, block, size);
+			}
+			pos = 0;
+			limit = size;
+			return true;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (pos == limit && !nextBlock()) {
+				return -1;
+			}
+			return block[pos++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (pos == limit && !nextBlock()) {
+				return -1;
+			}
+			int n = Math.min(len, limit - pos);
+			System.arraycopy(block, pos, b, off, n);
+			pos += n;
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return limit - pos;
+		}
+
+		@Override
+		public void close() throws IOException {
+			data.close();
+		}
+	}
+
+}
@@ -0,0 +1,164 @@
+package com.mxy.air.json;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 字节输入的快速扫描, 每次读取8个字节组成一个long, 通过位运算同时检查8个字符(SWAR).
+ * 只用于全部为ASCII字符的输入, 此时每个字节都小于0x80, 逐字节的加法不会产生进位, 得到的掩码是精确的.
+ * 掩码中每个字节的最高位表示该字节是否匹配, 按小端序读取, 第一个匹配的字节位置为 numberOfTrailingZeros / 8
+ *
+ * @author mengxiangyun
+ *
+ */
+class ByteScanner {
+
+	private static final long ONES = 0x0101010101010101L;
+
+	private static final long HIGHS = 0x8080808080808080L;
+
+	private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+
+	/* x + CONTROL 的字节最高位为1 当且仅当 x >= 0x20 */
+	private static final long CONTROL = ONES * (0x80 - 0x20);
+
+	private static final long SPACE = ONES * ' ';
+	private static final long TAB = ONES * '\t';
+	private static final long LF = ONES * '\n';
+	private static final long CR = ONES * '\r';
+	private static final long BACKSLASH = ONES * '\\';
+
+	/* 未被引号包裹的值的结束字符 "{}[]/\\:,=;#" */
+	private static final long[] LITERAL_ENDS;
+
+	static {
+		String ends = "{}[]/\\:,=;#";
+		LITERAL_ENDS = new long[ends.length()];
+		for (int i = 0; i < ends.length(); i++) {
+			LITERAL_ENDS[i] = ONES * ends.charAt(i);
+		}
+	}
+
+	private final byte[] bytes;
+
+	/* 以小端序读取long的视图 */
+	private final ByteBuffer words;
+
+	ByteScanner(byte[] bytes) {
+		this.bytes = bytes;
+		this.words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * 字节数组是否全部为ASCII字符
+	 *
+	 * @param bytes
+	 * @return
+	 */
+	static boolean isAscii(byte[] bytes) {
+		ByteBuffer words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		int i = 0;
+		long bits = 0;
+		for (; i + 8 <= bytes.length; i += 8) {
+			bits |= words.getLong(i);
+		}
+		for (; i < bytes.length; i++) {
+			bits |= bytes[i];
+		}
+		return (bits & HIGHS) == 0;
+	}
+
+	/**
+	 * 返回word中等于字符c的字节的掩码
+	 */
+	private static long eq(long word, long c) {
+		return ~((word ^ c) + LOWS) & HIGHS;
+	}
+
+	/**
+	 * 跳过空白字符' ', '\t', '\n', '\r'
+	 *
+	 * @param from
+	 * @param to
+	 * @return 第一个非空白字符的位置, 没有则返回to
+	 */
+	int skipWhitespace(int from, int to) {
+		int i = from;
+		for (; i + 8 <= to; i += 8) {
+			long word = words.getLong(i);
+			long mask = ~(eq(word, SPACE) | eq(word, TAB) | eq(word, LF) | eq(word, CR)) & HIGHS;
+			if (mask != 0) {
+				return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+			}
+		}
+		for (; i < to; i++) {
+			byte b = bytes[i];
+			if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+				return i;
+			}
+		}
+		return to;
+	}
+
+	/**
+	 * 查找字符串中下一个引号或转义字符'\\', controls为true时同时查找控制字符, 用于严格模式的校验
+	 *
+	 * @param from
+	 * @param to
+	 * @param quote
+	 *            包裹字符串的引号
+	 * @param controls
+	 *            是否在控制字符处停止
+	 * @return 找到的位置, 没有则返回to
+	 */
+	int indexOfStringEnd(int from, int to, char quote, boolean controls) {
+		long quotes = ONES * quote;
+		int i = from;
+		for (; i + 8 <= to; i += 8) {
+			long word = words.getLong(i);
+			long mask = eq(word, quotes) | eq(word, BACKSLASH);
+			if (controls) {
+				mask |= ~(word + CONTROL) & HIGHS;
+			}
+			if (mask != 0) {
+				return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+			}
+		}
+		for (; i < to; i++) {
+			byte b = bytes[i];
+			if (b == quote || b == '\\' || (controls && b < ' ')) {
+				return i;
+			}
+		}
+		return to;
+	}
+
+	/**
+	 * 查找未被引号包裹的值的结束位置, 即下一个控制字符或"{}[]/\\:,=;#"中的字符
+	 *
+	 * @param from
+	 * @param to
+	 * @return 找到的位置, 没有则返回to
+	 */
+	int indexOfLiteralEnd(int from, int to) {
+		int i = from;
+		for (; i + 8 <= to; i += 8) {
+			long word = words.getLong(i);
+			long mask = ~(word + CONTROL) & HIGHS;
+			for (long end : LITERAL_ENDS) {
+				mask |= eq(word, end);
+			}
+			if (mask != 0) {
+				return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+			}
+		}
+		for (; i < to; i++) {
+			byte b = bytes[i];
+			if (b < ' ' || "{}[]/\\:,=;#".indexOf(b) >= 0) {
+				return i;
+			}
+		}
+		return to;
+	}
+
+}
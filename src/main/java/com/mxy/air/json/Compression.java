@@ -0,0 +1,141 @@
+package com.mxy.air.json;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 压缩文件的识别和读写. 读取时根据文件头识别gzip和BlockCodec格式, 写入时根据文件扩展名选择压缩格式:
+ * .gz为gzip, .jlz为BlockCodec, 其他不压缩
+ *
+ * @author mengxiangyun
+ *
+ */
+final class Compression {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private Compression() {
+	}
+
+	/**
+	 * 文件是否为压缩文件
+	 */
+	static boolean isCompressed(Path path) throws IOException {
+		try (InputStream in = Files.newInputStream(path)) {
+			byte[] head = new byte[4];
+			int n = 0;
+			while (n < head.length) {
+				int read = in.read(head, n, head.length - n);
+				if (read < 0) {
+					break;
+				}
+				n += read;
+			}
+			return format(head, n) != 0;
+		}
+	}
+
+	/**
+	 * 根据文件头识别压缩格式, 返回1为gzip, 2为BlockCodec, 0为不压缩
+	 */
+	private static int format(byte[] head, int length) {
+		if (length >= 2 && (head[0] & 0xFF) == 0x1F && (head[1] & 0xFF) == 0x8B) {
+			return 1;
+		}
+		if (length >= 4 && head[0] == BlockCodec.MAGIC[0] && head[1] == BlockCodec.MAGIC[1]
+				&& head[2] == BlockCodec.MAGIC[2] && head[3] == BlockCodec.MAGIC[3]) {
+			return 2;
+		}
+		return 0;
+	}
+
+	/**
+	 * 返回解压后的输入流, 不是压缩数据时返回原始数据的输入流
+	 */
+	static InputStream decompress(InputStream in) throws IOException {
+		BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+		buffered.mark(4);
+		byte[] head = new byte[4];
+		int n = 0;
+		while (n < head.length) {
+			int read = buffered.read(head, n, head.length - n);
+			if (read < 0) {
+				break;
+			}
+			n += read;
+		}
+		buffered.reset();
+		switch (format(head, n)) {
+		case 1:
+			return new GZIPInputStream(buffered, BUFFER_SIZE);
+		case 2:
+			return new BlockCodec.BlockInputStream(buffered);
+		default:
+			return buffered;
+		}
+	}
+
+	/**
+	 * decompress()返回的输入流是否在解压
+	 */
+	static boolean isDecompressing(InputStream in) {
+		return in instanceof GZIPInputStream || in instanceof BlockCodec.BlockInputStream;
+	}
+
+	/**
+	 * 将文件内容解码为字符串, 压缩的内容边解压边解码, 不保留解压后的字节
+	 */
+	static String decode(ByteBuffer buffer) throws IOException {
+		byte[] head = new byte[Math.min(4, buffer.remaining())];
+		buffer.duplicate().get(head);
+		if (format(head, head.length) == 0) {
+			return UTF_8.decode(buffer).toString();
+		}
+		return read(decompress(new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(),
+				buffer.remaining())));
+	}
+
+	/**
+	 * 读取输入流中UTF-8编码的全部内容并关闭输入流
+	 */
+	static String read(InputStream in) throws IOException {
+		try (Reader reader = new InputStreamReader(in, UTF_8)) {
+			StringBuilder sb = new StringBuilder();
+			char[] buffer = new char[8192];
+			int n;
+			while ((n = reader.read(buffer)) != -1) {
+				sb.append(buffer, 0, n);
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * 根据文件扩展名返回压缩的输出流
+	 */
+	static OutputStream compress(OutputStream out, Path path) throws IOException {
+		String name = path.getFileName().toString();
+		if (name.endsWith(".gz")) {
+			return new GZIPOutputStream(out, BUFFER_SIZE);
+		}
+		if (name.endsWith(".jlz")) {
+			return new BlockCodec.BlockOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+		}
+		return new BufferedOutputStream(out, BUFFER_SIZE);
+	}
+
+}
@@ -0,0 +1,284 @@
+package com.mxy.air.json;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 线程安全的JSONObject, 适合多线程读取, 少量线程更新的共享数据.
+ * 内部用ConcurrentSkipListMap存储, 读取不加锁, 元素按key排序.
+ * compute, merge, putIfAbsent等方法对单个key是原子的, computePath()可以原子地更新嵌套路径上的值.
+ * 与get()一致, 这些方法把值为null的key当作不存在, 行为与Map接口的默认实现相同: putIfAbsent和computeIfAbsent会替换null值,
+ * computeIfPresent不处理null值, merge遇到null值时直接设置新值. 只有containsKey()区分值为null和不存在.
+ * 
+ * 可以调用freeze(), 冻结后包括原子操作在内的所有修改方法都抛出UnsupportedOperationException.
+ * 冻结标记没有同步, 只能在没有其他线程修改时冻结, 并且冻结后的对象需要通过安全的方式发布给其他线程
+ * 
+ * @author mengxiangyun
+ *
+ */
+public class ConcurrentJSONObject extends JSONObject {
+
+	public ConcurrentJSONObject() {
+		super(new FreezableMap(new NullableMap()));
+	}
+
+	/**
+	 * 通过Map构建一个ConcurrentJSONObject对象
+	 * 
+	 * @param copyFrom
+	 */
+	public ConcurrentJSONObject(Map<String, Object> copyFrom) {
+		this();
+		putAll(copyFrom);
+	}
+
+	private NullableMap nullable() {
+		if (isFrozen()) {
+			throw new UnsupportedOperationException("ConcurrentJSONObject已冻结");
+		}
+		return (NullableMap) backing();
+	}
+
+	@Override
+	public Object putIfAbsent(String key, Object value) {
+		return nullable().putIfAbsent(key, value);
+	}
+
+	@Override
+	public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		return nullable().compute(key, remappingFunction);
+	}
+
+	@Override
+	public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+		return nullable().computeIfAbsent(key, mappingFunction);
+	}
+
+	@Override
+	public Object computeIfPresent(String key,
+			BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		return nullable().computeIfPresent(key, remappingFunction);
+	}
+
+	@Override
+	public Object merge(String key, Object value,
+			BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+		return nullable().merge(key, value, remappingFunction);
+	}
+
+	/**
+	 * 原子地更新嵌套路径上的值, 路径上不存在的对象会自动创建,
+	 * 路径上的JSONObject会被替换为ConcurrentJSONObject
+	 * 
+	 * @param path
+	 *            key路径, 至少包含一个key
+	 * @param remappingFunction
+	 * @return 更新后的值
+	 */
+	public Object computePath(String[] path,
+			BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		if (path.length == 0) {
+			throw new JSONException("路径不能为空");
+		}
+		ConcurrentJSONObject current = this;
+		for (int i = 0; i < path.length - 1; i++) {
+			String key = path[i];
+			Object child = current.compute(key, (k, v) -> {
+				if (v instanceof ConcurrentJSONObject) {
+					return v;
+				}
+				if (v == null) {
+					return new ConcurrentJSONObject();
+				}
+				if (v instanceof JSONObject) {
+					return new ConcurrentJSONObject((JSONObject) v);
+				}
+				throw new JSONException("路径[" + k + "]的值不是JSONObject类型");
+			});
+			current = (ConcurrentJSONObject) child;
+		}
+		return current.compute(path[path.length - 1], remappingFunction);
+	}
+
+	/**
+	 * 设置嵌套路径上的值, 路径上不存在的对象会自动创建
+	 * 
+	 * @param path
+	 * @param value
+	 * @return
+	 */
+	public ConcurrentJSONObject putPath(String[] path, Object value) {
+		computePath(path, (k, v) -> value);
+		return this;
+	}
+
+	/**
+	 * 支持null值的并发Map, null值在内部用NULL对象代替
+	 */
+	private static final class NullableMap extends AbstractMap<String, Object> {
+
+		private static final Object NULL = new Object();
+
+		private final ConcurrentSkipListMap<String, Object> map = new ConcurrentSkipListMap<>();
+
+		private static Object mask(Object value) {
+			return value == null ? NULL : value;
+		}
+
+		private static Object unmask(Object value) {
+			return value == NULL ? null : value;
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return map.isEmpty();
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return key != null && map.containsKey(key);
+		}
+
+		@Override
+		public boolean containsValue(Object value) {
+			return map.containsValue(mask(value));
+		}
+
+		@Override
+		public Object get(Object key) {
+			return key == null ? null : unmask(map.get(key));
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			if (key == null) {
+				throw new JSONException("key is null");
+			}
+			return unmask(map.put(key, mask(value)));
+		}
+
+		@Override
+		public Object remove(Object key) {
+			return key == null ? null : unmask(map.remove(key));
+		}
+
+		@Override
+		public void clear() {
+			map.clear();
+		}
+
+		@Override
+		public Object putIfAbsent(String key, Object value) {
+			Object masked = mask(value);
+			while (true) {
+				Object old = map.putIfAbsent(key, masked);
+				if (old == null) {
+					return null;
+				}
+				if (old != NULL || map.replace(key, NULL, masked)) {
+					return unmask(old);
+				}
+			}
+		}
+
+		/**
+		 * remappingFunction返回null时删除key, 与Map.compute()相同
+		 */
+		@Override
+		public Object compute(String key,
+				BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+			return unmask(map.compute(key, (k, v) -> remappingFunction.apply(k, unmask(v))));
+		}
+
+		/**
+		 * 值为null时同样调用mappingFunction, mappingFunction返回null时保留原来的null值
+		 */
+		@Override
+		public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+			Object value = map.get(key);
+			if (value != null && value != NULL) {
+				return value;
+			}
+			return unmask(map.compute(key, (k, v) -> {
+				if (v != null && v != NULL) {
+					return v;
+				}
+				Object computed = mappingFunction.apply(k);
+				return computed == null ? v : computed;
+			}));
+		}
+
+		@Override
+		public Object computeIfPresent(String key,
+				BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+			return unmask(map.computeIfPresent(key, (k, v) -> v == NULL ? NULL : remappingFunction.apply(k, v)));
+		}
+
+		/**
+		 * 值为null或不存在时设置为value, 否则用remappingFunction的结果替换, 结果为null时删除key
+		 */
+		@Override
+		public Object merge(String key, Object value,
+				BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+			return unmask(map.compute(key, (k, v) -> v == null || v == NULL ? mask(value)
+					: remappingFunction.apply(v, value)));
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<Entry<String, Object>>() {
+
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					Iterator<Entry<String, Object>> iterator = map.entrySet().iterator();
+					return new Iterator<Entry<String, Object>>() {
+
+						@Override
+						public boolean hasNext() {
+							return iterator.hasNext();
+						}
+
+						@Override
+						public Entry<String, Object> next() {
+							Entry<String, Object> entry = iterator.next();
+							String key = entry.getKey();
+							return new SimpleEntry<String, Object>(key, unmask(entry.getValue())) {
+
+								private static final long serialVersionUID = 1L;
+
+								@Override
+								public Object setValue(Object value) {
+									super.setValue(value);
+									return unmask(map.put(key, mask(value)));
+								}
+							};
+						}
+
+						@Override
+						public void remove() {
+							iterator.remove();
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return map.size();
+				}
+			};
+		}
+
+	}
+
+}
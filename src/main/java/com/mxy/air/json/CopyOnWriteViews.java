@@ -0,0 +1,370 @@
+package com.mxy.air.json;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * 写时复制的JSONObject和JSONArray存储. 与冻结的模板共用数据, 第一次修改当前层时才复制当前层的key-value或元素,
+ * 嵌套的冻结对象和数组在通过get()读取时包装为新的写时复制对象, 包装对象单独保存, 读取不会复制当前层,
+ * 所以复制的数据量只与修改的路径有关. 遍历时返回已经通过get()取得的包装对象, 其余是模板中的只读对象,
+ * 修改嵌套的对象或数组需要通过get()获取
+ *
+ * @author mengxiangyun
+ *
+ */
+class CopyOnWriteViews {
+
+	private CopyOnWriteViews() {
+	}
+
+	/**
+	 * 冻结的对象或数组转换为写时复制的对象或数组, 其他值不变
+	 */
+	static Object writable(Object value) {
+		if (value instanceof JSONObject && ((JSONObject) value).isFrozen()) {
+			return JSONObject.backedBy(new MapView(((JSONObject) value).map()));
+		} else if (value instanceof JSONArray && ((JSONArray) value).isFrozen()) {
+			return JSONArray.backedBy(new ListView(((JSONArray) value).list()));
+		}
+		return value;
+	}
+
+	private static boolean shared(Object value) {
+		return (value instanceof JSONObject && ((JSONObject) value).isFrozen())
+				|| (value instanceof JSONArray && ((JSONArray) value).isFrozen());
+	}
+
+	static final class MapView extends AbstractMap<String, Object> {
+
+		/* 模板的数据, 不可修改 */
+		private final Map<String, Object> source;
+
+		/* 修改后的私有数据, 为null时还未修改 */
+		private Map<String, Object> copy;
+
+		/* 还未修改时, 通过get()取得的嵌套写时复制对象 */
+		private Map<String, Object> children;
+
+		MapView(Map<String, Object> source) {
+			this.source = source;
+		}
+
+		private Map<String, Object> current() {
+			return copy != null ? copy : source;
+		}
+
+		private Map<String, Object> copy() {
+			if (copy == null) {
+				copy = new LinkedHashMap<>(source);
+				if (children != null) {
+					copy.putAll(children);
+					children = null;
+				}
+			}
+			return copy;
+		}
+
+		/**
+		 * 遍历时的值, 优先使用已取得的包装对象
+		 */
+		private Object peek(String key, Object value) {
+			if (children != null) {
+				Object child = children.get(key);
+				if (child != null) {
+					return child;
+				}
+			}
+			return value;
+		}
+
+		@Override
+		public int size() {
+			return current().size();
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return current().containsKey(key);
+		}
+
+		@Override
+		public Object get(Object key) {
+			if (copy != null) {
+				Object value = copy.get(key);
+				if (shared(value)) {
+					value = writable(value);
+					copy.put((String) key, value);
+				}
+				return value;
+			}
+			if (children != null) {
+				Object child = children.get(key);
+				if (child != null) {
+					return child;
+				}
+			}
+			Object value = source.get(key);
+			if (shared(value)) {
+				value = writable(value);
+				if (children == null) {
+					children = new LinkedHashMap<>();
+				}
+				children.put((String) key, value);
+			}
+			return value;
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			return copy().put(key, value);
+		}
+
+		@Override
+		public Object remove(Object key) {
+			if (copy == null && !source.containsKey(key)) {
+				return null;
+			}
+			return copy().remove(key);
+		}
+
+		@Override
+		public void clear() {
+			copy = new LinkedHashMap<>();
+			children = null;
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<Entry<String, Object>>() {
+
+				@Override
+				public int size() {
+					return MapView.this.size();
+				}
+
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					if (copy != null) {
+						return copy.entrySet().iterator();
+					}
+					Iterator<Entry<String, Object>> iterator = source.entrySet().iterator();
+					return new Iterator<Entry<String, Object>>() {
+
+						private String last;
+
+						@Override
+						public boolean hasNext() {
+							return iterator.hasNext();
+						}
+
+						@Override
+						public Entry<String, Object> next() {
+							Entry<String, Object> entry = iterator.next();
+							last = entry.getKey();
+							return new SimpleEntry<String, Object>(last, peek(last, entry.getValue())) {
+
+								private static final long serialVersionUID = 1L;
+
+								@Override
+								public Object setValue(Object value) {
+									put(getKey(), value);
+									return super.setValue(value);
+								}
+							};
+						}
+
+						@Override
+						public void remove() {
+							if (last == null) {
+								throw new IllegalStateException();
+							}
+							copy().remove(last);
+							last = null;
+						}
+					};
+				}
+			};
+		}
+	}
+
+	static final class ListView extends AbstractList<Object> implements RandomAccess {
+
+		/* 模板的数据, 不可修改 */
+		private final List<Object> source;
+
+		/* 修改后的私有数据, 为null时还未修改 */
+		private List<Object> copy;
+
+		/* 还未修改时, 通过get()取得的嵌套写时复制对象, 按索引保存 */
+		private Object[] children;
+
+		ListView(List<Object> source) {
+			this.source = source;
+		}
+
+		private List<Object> current() {
+			return copy != null ? copy : source;
+		}
+
+		private List<Object> copy() {
+			if (copy == null) {
+				copy = new ArrayList<>(source);
+				if (children != null) {
+					for (int i = 0; i < children.length; i++) {
+						if (children[i] != null) {
+							copy.set(i, children[i]);
+						}
+					}
+					children = null;
+				}
+			}
+			return copy;
+		}
+
+		/**
+		 * 不包装的读取, 优先使用已取得的包装对象
+		 */
+		private Object peek(int index) {
+			if (copy != null) {
+				return copy.get(index);
+			}
+			if (children != null && children[index] != null) {
+				return children[index];
+			}
+			return source.get(index);
+		}
+
+		@Override
+		public Object get(int index) {
+			if (copy != null) {
+				Object value = copy.get(index);
+				if (shared(value)) {
+					value = writable(value);
+					copy.set(index, value);
+				}
+				return value;
+			}
+			Object value = source.get(index);
+			if (children != null && children[index] != null) {
+				return children[index];
+			}
+			if (shared(value)) {
+				value = writable(value);
+				if (children == null) {
+					children = new Object[source.size()];
+				}
+				children[index] = value;
+			}
+			return value;
+		}
+
+		@Override
+		public int size() {
+			return current().size();
+		}
+
+		@Override
+		public Object set(int index, Object element) {
+			return copy().set(index, element);
+		}
+
+		@Override
+		public void add(int index, Object element) {
+			copy().add(index, element);
+			modCount++;
+		}
+
+		@Override
+		public Object remove(int index) {
+			Object old = copy().remove(index);
+			modCount++;
+			return old;
+		}
+
+		@Override
+		public int indexOf(Object o) {
+			if (children == null) {
+				return current().indexOf(o);
+			}
+			for (int i = 0; i < children.length; i++) {
+				if (Objects.equals(o, peek(i))) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public int lastIndexOf(Object o) {
+			if (children == null) {
+				return current().lastIndexOf(o);
+			}
+			for (int i = children.length - 1; i >= 0; i--) {
+				if (Objects.equals(o, peek(i))) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return indexOf(o) >= 0;
+		}
+
+		/**
+		 * 遍历时不替换嵌套的冻结对象和数组
+		 */
+		@Override
+		public Iterator<Object> iterator() {
+			return new Iterator<Object>() {
+
+				private int next;
+
+				private int last = -1;
+
+				private int expectedModCount = modCount;
+
+				@Override
+				public boolean hasNext() {
+					return next < size();
+				}
+
+				@Override
+				public Object next() {
+					if (modCount != expectedModCount) {
+						throw new ConcurrentModificationException();
+					}
+					if (next >= size()) {
+						throw new NoSuchElementException();
+					}
+					last = next++;
+					return peek(last);
+				}
+
+				@Override
+				public void remove() {
+					if (last < 0) {
+						throw new IllegalStateException();
+					}
+					ListView.this.remove(last);
+					next = last;
+					last = -1;
+					expectedModCount = modCount;
+				}
+			};
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.mxy.air.json;
+
+import java.util.function.Function;
+
+/**
+ * 枚举对应的key的缓存, 每个枚举类型只计算一次, 按ordinal索引, 读取时不分配内存
+ * 
+ * @author mengxiangyun
+ *
+ */
+final class EnumKeys {
+
+	/* 默认的key为枚举名称对应的小写字符串 */
+	static final Function<Enum<?>, String> LOWER_CASE = e -> e.toString().toLowerCase();
+
+	private static volatile EnumKeys current = new EnumKeys(LOWER_CASE);
+
+	private final Function<Enum<?>, String> naming;
+
+	private final ClassValue<String[]> keys = new ClassValue<String[]>() {
+
+		@Override
+		protected String[] computeValue(Class<?> type) {
+			Object[] constants = type.getEnumConstants();
+			String[] result = new String[constants.length];
+			for (int i = 0; i < constants.length; i++) {
+				result[i] = naming.apply((Enum<?>) constants[i]);
+			}
+			return result;
+		}
+	};
+
+	private EnumKeys(Function<Enum<?>, String> naming) {
+		this.naming = naming;
+	}
+
+	/**
+	 * 返回枚举对应的key
+	 */
+	static String key(Enum<?> e) {
+		return current.keys.get(e.getDeclaringClass())[e.ordinal()];
+	}
+
+	/**
+	 * 设置枚举转换为key的规则, 已缓存的key会被丢弃
+	 */
+	static void setNaming(Function<Enum<?>, String> naming) {
+		if (naming == null) {
+			throw new JSONException("naming 不能为空");
+		}
+		current = new EnumKeys(naming);
+	}
+
+}
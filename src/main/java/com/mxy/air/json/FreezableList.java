@@ -0,0 +1,255 @@
+package com.mxy.air.json;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * JSONArray的内部存储, 包装实际保存数据的list. JSONArray始终持有同一个实例, 冻结只设置标记, 开启索引只替换内部的list,
+ * 之前取得的iterator, subList和视图都通过当前实例读写, 不会失效. 冻结后的修改操作抛出UnsupportedOperationException
+ *
+ * @author mengxiangyun
+ *
+ */
+final class FreezableList extends AbstractList<Object> implements RandomAccess {
+
+	private List<Object> list;
+
+	private boolean frozen;
+
+	FreezableList(List<Object> list) {
+		this.list = list;
+	}
+
+	/**
+	 * 实际保存数据的list, 只在包内使用, 不能绕过冻结修改
+	 */
+	List<Object> backing() {
+		return list;
+	}
+
+	void freeze() {
+		frozen = true;
+	}
+
+	boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * 换成带hash索引的list
+	 */
+	void index() {
+		if (!(list instanceof IndexedList)) {
+			list = new IndexedList(list);
+		}
+	}
+
+	private void checkWritable() {
+		if (frozen) {
+			throw new UnsupportedOperationException("JSONArray已冻结");
+		}
+	}
+
+	@Override
+	public int size() {
+		return list.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return list.isEmpty();
+	}
+
+	@Override
+	public Object get(int index) {
+		return list.get(index);
+	}
+
+	/*
+	 * 按解析后的值查找, 延迟解析的值与解析后的值相等. 开启索引后由IndexedList查找
+	 */
+
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		if (list instanceof IndexedList) {
+			return list.indexOf(o);
+		}
+		return indexOf(list, o);
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		if (list instanceof IndexedList) {
+			return list.lastIndexOf(o);
+		}
+		return lastIndexOf(list, o);
+	}
+
+	static int indexOf(List<Object> list, Object o) {
+		for (int i = 0, size = list.size(); i < size; i++) {
+			if (JSONObject.same(o, list.get(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	static int lastIndexOf(List<Object> list, Object o) {
+		for (int i = list.size() - 1; i >= 0; i--) {
+			if (JSONObject.same(o, list.get(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public Object[] toArray() {
+		return list.toArray();
+	}
+
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return list.toArray(a);
+	}
+
+	@Override
+	public void forEach(Consumer<? super Object> action) {
+		list.forEach(action);
+	}
+
+	@Override
+	public Object set(int index, Object element) {
+		checkWritable();
+		return list.set(index, element);
+	}
+
+	@Override
+	public boolean add(Object e) {
+		checkWritable();
+		modCount++;
+		return list.add(e);
+	}
+
+	@Override
+	public void add(int index, Object element) {
+		checkWritable();
+		modCount++;
+		list.add(index, element);
+	}
+
+	@Override
+	public Object remove(int index) {
+		checkWritable();
+		modCount++;
+		return list.remove(index);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		checkWritable();
+		int i = indexOf(o);
+		if (i < 0) {
+			return false;
+		}
+		modCount++;
+		list.remove(i);
+		return true;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Object> c) {
+		checkWritable();
+		modCount++;
+		return list.addAll(c);
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Object> c) {
+		checkWritable();
+		modCount++;
+		return list.addAll(index, c);
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		checkWritable();
+		modCount++;
+		return list.removeAll(c);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		checkWritable();
+		modCount++;
+		return list.retainAll(c);
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super Object> filter) {
+		checkWritable();
+		modCount++;
+		return list.removeIf(filter);
+	}
+
+	@Override
+	public void replaceAll(UnaryOperator<Object> operator) {
+		checkWritable();
+		list.replaceAll(operator);
+	}
+
+	@Override
+	public void sort(Comparator<? super Object> c) {
+		checkWritable();
+		modCount++;
+		list.sort(c);
+	}
+
+	@Override
+	public void clear() {
+		checkWritable();
+		modCount++;
+		list.clear();
+	}
+
+	/**
+	 * 与另一个JSONArray的存储比较, 元素按解析后的值比较
+	 */
+	boolean same(FreezableList other) {
+		int size = list.size();
+		if (other.list.size() != size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (!JSONObject.same(list.get(i), other.list.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		return list.equals(o instanceof FreezableList ? ((FreezableList) o).list : o);
+	}
+
+	@Override
+	public int hashCode() {
+		return list.hashCode();
+	}
+
+}
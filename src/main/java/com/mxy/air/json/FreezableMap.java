@@ -0,0 +1,260 @@
+package com.mxy.air.json;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * JSONObject的内部存储, 包装实际保存数据的map. JSONObject始终持有同一个实例,
+ * 冻结只设置标记, 之后的修改操作抛出UnsupportedOperationException, 冻结之前取得的keySet, values, entrySet同样变为只读
+ *
+ * @author mengxiangyun
+ *
+ */
+final class FreezableMap extends AbstractMap<String, Object> {
+
+	private final Map<String, Object> map;
+
+	private boolean frozen;
+
+	private Set<String> keys;
+
+	private Collection<Object> values;
+
+	private Set<Entry<String, Object>> entries;
+
+	FreezableMap(Map<String, Object> map) {
+		this.map = map;
+	}
+
+	/**
+	 * 实际保存数据的map, 只在包内使用, 不能绕过冻结修改
+	 */
+	Map<String, Object> backing() {
+		return map;
+	}
+
+	void freeze() {
+		frozen = true;
+	}
+
+	boolean isFrozen() {
+		return frozen;
+	}
+
+	private void checkWritable() {
+		if (frozen) {
+			throw new UnsupportedOperationException("JSONObject已冻结");
+		}
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return map.isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return map.containsKey(key);
+	}
+
+	/**
+	 * 按解析后的值查找, 延迟解析的值与解析后的值相等
+	 */
+	@Override
+	public boolean containsValue(Object value) {
+		for (Object v : map.values()) {
+			if (JSONObject.same(value, v)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Object get(Object key) {
+		return map.get(key);
+	}
+
+	@Override
+	public Object getOrDefault(Object key, Object defaultValue) {
+		return map.getOrDefault(key, defaultValue);
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		checkWritable();
+		return map.put(key, value);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		checkWritable();
+		return map.remove(key);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> m) {
+		checkWritable();
+		map.putAll(m);
+	}
+
+	@Override
+	public void clear() {
+		checkWritable();
+		map.clear();
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super Object> action) {
+		map.forEach(action);
+	}
+
+	@Override
+	public Set<String> keySet() {
+		Set<String> result = keys;
+		if (result == null) {
+			result = new AbstractSet<String>() {
+
+				@Override
+				public Iterator<String> iterator() {
+					return frozen ? Collections.unmodifiableSet(map.keySet()).iterator() : map.keySet().iterator();
+				}
+
+				@Override
+				public int size() {
+					return map.size();
+				}
+
+				@Override
+				public boolean contains(Object o) {
+					return map.containsKey(o);
+				}
+
+				@Override
+				public boolean remove(Object o) {
+					checkWritable();
+					return map.keySet().remove(o);
+				}
+
+				@Override
+				public void clear() {
+					FreezableMap.this.clear();
+				}
+			};
+			keys = result;
+		}
+		return result;
+	}
+
+	@Override
+	public Collection<Object> values() {
+		Collection<Object> result = values;
+		if (result == null) {
+			result = new AbstractCollection<Object>() {
+
+				@Override
+				public Iterator<Object> iterator() {
+					return frozen ? Collections.unmodifiableCollection(map.values()).iterator() : map.values().iterator();
+				}
+
+				@Override
+				public int size() {
+					return map.size();
+				}
+
+				@Override
+				public boolean contains(Object o) {
+					return map.containsValue(o);
+				}
+
+				@Override
+				public void clear() {
+					FreezableMap.this.clear();
+				}
+			};
+			values = result;
+		}
+		return result;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		Set<Entry<String, Object>> result = entries;
+		if (result == null) {
+			result = new AbstractSet<Entry<String, Object>>() {
+
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					// 冻结后的entry同样不能修改
+					return frozen ? Collections.unmodifiableMap(map).entrySet().iterator() : map.entrySet().iterator();
+				}
+
+				@Override
+				public int size() {
+					return map.size();
+				}
+
+				@Override
+				public boolean contains(Object o) {
+					return map.entrySet().contains(o);
+				}
+
+				@Override
+				public boolean remove(Object o) {
+					checkWritable();
+					return map.entrySet().remove(o);
+				}
+
+				@Override
+				public void clear() {
+					FreezableMap.this.clear();
+				}
+			};
+			entries = result;
+		}
+		return result;
+	}
+
+	/**
+	 * 与另一个JSONObject的存储比较, 值按解析后的值比较
+	 */
+	boolean same(FreezableMap other) {
+		if (other.map.size() != map.size()) {
+			return false;
+		}
+		for (Entry<String, Object> entry : map.entrySet()) {
+			Object value = entry.getValue();
+			Object o = other.map.get(entry.getKey());
+			if (o == null ? value != null || !other.map.containsKey(entry.getKey()) : !JSONObject.same(value, o)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		return map.equals(o instanceof FreezableMap ? ((FreezableMap) o).map : o);
+	}
+
+	@Override
+	public int hashCode() {
+		return map.hashCode();
+	}
+
+}
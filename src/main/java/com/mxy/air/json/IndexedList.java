@@ -0,0 +1,312 @@
+package com.mxy.air.json;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * 带有hash索引的List, 用于在大数组中查找元素.
+ * 索引在第一次查找时构建, 之后随add, set, remove增量更新. 只索引hash值不会变化的值(字符串, 数值, 布尔值和null),
+ * 延迟解析的值按解析后的值索引, 查找对象或数组时仍然按顺序比较. 数组较小, 或者索引在多次修改之间没有被使用时丢弃索引, 下次查找时重新构建
+ *
+ * @author mengxiangyun
+ *
+ */
+final class IndexedList extends AbstractList<Object> implements RandomAccess {
+
+	/* 元素数量少于该值时不构建索引 */
+	private static final int MIN_SIZE = 64;
+
+	private final ArrayList<Object> list;
+
+	/* 值对应的数量和第一次出现的位置, 为null时没有索引 */
+	private Map<Object, Position> index;
+
+	/* 索引中的位置是否有效, 在中间插入或删除元素后失效, 下次调用indexOf()时重新计算 */
+	private boolean positioned;
+
+	/* 上次查找之后更新索引的次数 */
+	private int idleWrites;
+
+	private static final class Position {
+
+		int count;
+
+		int first;
+	}
+
+	IndexedList(Collection<?> source) {
+		this.list = new ArrayList<>(source);
+	}
+
+	/**
+	 * 是否是hash值不会变化的值
+	 */
+	private static boolean indexable(Object o) {
+		return o == null || o instanceof String || o instanceof Integer || o instanceof Long || o instanceof Double
+				|| o instanceof Boolean || o instanceof BigDecimal || o instanceof BigInteger || o instanceof Float
+				|| o instanceof Short || o instanceof Byte || o instanceof Character;
+	}
+
+	/**
+	 * 返回可以用于查找o的索引, 不需要索引时返回null
+	 */
+	private Map<Object, Position> lookup(Object o) {
+		if (!indexable(JSONObject.unwrap(o)) || (index == null && list.size() < MIN_SIZE)) {
+			return null;
+		}
+		idleWrites = 0;
+		if (index == null) {
+			index = new HashMap<>();
+			positioned = false;
+			for (Object element : list) {
+				Object e = JSONObject.unwrap(element);
+				if (indexable(e)) {
+					Position position = index.get(e);
+					if (position == null) {
+						position = new Position();
+						index.put(e, position);
+					}
+					position.count++;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * 重新计算所有值第一次出现的位置
+	 */
+	private void position() {
+		for (Position position : index.values()) {
+			position.first = -1;
+		}
+		for (int i = 0; i < list.size(); i++) {
+			Object e = JSONObject.unwrap(list.get(i));
+			if (indexable(e)) {
+				Position position = index.get(e);
+				if (position.first < 0) {
+					position.first = i;
+				}
+			}
+		}
+		positioned = true;
+	}
+
+	/**
+	 * 修改后检查索引是否值得保留
+	 */
+	private boolean keepIndex() {
+		if (index == null) {
+			return false;
+		}
+		if (list.size() < MIN_SIZE / 2 || ++idleWrites > Math.max(list.size(), MIN_SIZE)) {
+			index = null;
+			return false;
+		}
+		return true;
+	}
+
+	private void indexAdd(Object element, int at) {
+		Object e = JSONObject.unwrap(element);
+		if (!indexable(e)) {
+			return;
+		}
+		Position position = index.get(e);
+		if (position == null) {
+			position = new Position();
+			position.first = at;
+			index.put(e, position);
+		} else if (position.first > at) {
+			position.first = at;
+		}
+		position.count++;
+	}
+
+	private void indexRemove(Object element, int at) {
+		Object e = JSONObject.unwrap(element);
+		if (!indexable(e)) {
+			return;
+		}
+		Position position = index.get(e);
+		if (--position.count == 0) {
+			index.remove(e);
+		} else if (position.first == at) {
+			positioned = false;
+		}
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		Map<Object, Position> index = lookup(o);
+		if (index == null) {
+			return FreezableList.indexOf(list, o) >= 0;
+		}
+		return index.containsKey(JSONObject.unwrap(o));
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		Map<Object, Position> index = lookup(o);
+		if (index == null) {
+			return FreezableList.indexOf(list, o);
+		}
+		Position position = index.get(JSONObject.unwrap(o));
+		if (position == null) {
+			return -1;
+		}
+		if (!positioned) {
+			position();
+		}
+		return position.first;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		Map<Object, Position> index = lookup(o);
+		if (index != null && !index.containsKey(JSONObject.unwrap(o))) {
+			return -1;
+		}
+		return FreezableList.lastIndexOf(list, o);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int i = indexOf(o);
+		if (i < 0) {
+			return false;
+		}
+		remove(i);
+		return true;
+	}
+
+	@Override
+	public Object get(int index) {
+		return list.get(index);
+	}
+
+	@Override
+	public int size() {
+		return list.size();
+	}
+
+	@Override
+	public boolean add(Object e) {
+		list.add(e);
+		modCount++;
+		if (keepIndex()) {
+			indexAdd(e, list.size() - 1);
+		}
+		return true;
+	}
+
+	@Override
+	public void add(int at, Object e) {
+		list.add(at, e);
+		modCount++;
+		if (keepIndex()) {
+			if (at < list.size() - 1) {
+				positioned = false;
+			}
+			indexAdd(e, at);
+		}
+	}
+
+	@Override
+	public Object set(int at, Object e) {
+		Object old = list.set(at, e);
+		if (keepIndex()) {
+			indexRemove(old, at);
+			indexAdd(e, at);
+		}
+		return old;
+	}
+
+	@Override
+	public Object remove(int at) {
+		Object old = list.remove(at);
+		modCount++;
+		if (keepIndex()) {
+			indexRemove(old, at);
+			if (at < list.size()) {
+				positioned = false;
+			}
+		}
+		return old;
+	}
+
+	/*
+	 * 批量修改直接作用于内部的ArrayList, 并丢弃索引
+	 */
+
+	@Override
+	public void clear() {
+		list.clear();
+		modCount++;
+		index = null;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Object> c) {
+		modCount++;
+		index = null;
+		return list.addAll(c);
+	}
+
+	@Override
+	public boolean addAll(int at, Collection<? extends Object> c) {
+		modCount++;
+		index = null;
+		return list.addAll(at, c);
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		modCount++;
+		index = null;
+		return list.removeAll(c);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		modCount++;
+		index = null;
+		return list.retainAll(c);
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super Object> filter) {
+		modCount++;
+		index = null;
+		return list.removeIf(filter);
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		modCount++;
+		index = null;
+		list.subList(fromIndex, toIndex).clear();
+	}
+
+	@Override
+	public void sort(Comparator<? super Object> c) {
+		modCount++;
+		index = null;
+		list.sort(c);
+	}
+
+	@Override
+	public void replaceAll(UnaryOperator<Object> operator) {
+		index = null;
+		list.replaceAll(operator);
+	}
+
+}
@@ -2,6 +2,13 @@ package com.mxy.air.json;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -9,10 +16,37 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.Spliterator;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class JSON {
 
+	/* 异步读取文件 */
+	private static final AsyncFileReader ASYNC_READER = new AsyncFileReader();
+
+	/* 解析和格式化的统计监听器, 为null时不统计 */
+	private static volatile JSONMetrics metrics;
+
+	/**
+	 * 注册解析和格式化的统计监听器, 传入null取消统计.
+	 * 只对之后创建的JSONTokener和JSONStringer生效
+	 * @param jsonMetrics
+	 */
+	public static void setMetrics(JSONMetrics jsonMetrics) {
+		metrics = jsonMetrics;
+	}
+
+	/**
+	 * 返回注册的统计监听器, 没有注册时返回null
+	 * @return
+	 */
+	public static JSONMetrics getMetrics() {
+		return metrics;
+	}
+
 	/**
 	 * 读取JSON文件, 返回文件内容字符串
 	 * @param jsonFile
@@ -33,9 +67,58 @@ public class JSON {
 	 */
 	public static String read(Path path) throws IOException, URISyntaxException {
 		if (path == null) return null;
+		return readText(path);
+	}
+
+	/**
+	 * 读取文件内容, gzip或BlockCodec压缩的文件边解压边解码
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	private static String readText(Path path) throws IOException {
+		if (Compression.isCompressed(path)) {
+			return Compression.read(Compression.decompress(Files.newInputStream(path)));
+		}
 		return new String(Files.readAllBytes(path), Charset.forName("UTF-8"));
 	}
 
+	/**
+	 * 打开文件的输入流, gzip或BlockCodec压缩的文件返回解压后的输入流
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static InputStream openStream(Path path) throws IOException {
+		return Compression.decompress(Files.newInputStream(path));
+	}
+
+	/**
+	 * 将JSON写入文件, 文件扩展名为.gz时使用gzip压缩, 为.jlz时使用BlockCodec压缩
+	 * @param path
+	 * @param json
+	 * @throws IOException
+	 */
+	public static void write(Path path, Object json) throws IOException {
+		write(path, json, 0);
+	}
+
+	/**
+	 * 将格式化的JSON写入文件, 文件扩展名为.gz时使用gzip压缩, 为.jlz时使用BlockCodec压缩
+	 * @param path
+	 * @param json
+	 * @param indentSpaces 缩进大小
+	 * @throws IOException
+	 */
+	public static void write(Path path, Object json, int indentSpaces) throws IOException {
+		String text = new JSONStringer(indentSpaces).value(json);
+		// 文件流单独关闭, 创建压缩流失败时同样关闭
+		try (OutputStream out = Files.newOutputStream(path);
+				Writer writer = new OutputStreamWriter(Compression.compress(out, path), Charset.forName("UTF-8"))) {
+			writer.write(text);
+		}
+	}
+
 	/**
 	 * 从JSON文件中读取JSON对象
 	 * @param jsonFile
@@ -84,6 +167,62 @@ public class JSON {
 		return (json == null || json.isEmpty()) ? null : new JSONArray(json);
 	}
 
+	/**
+	 * 从JSON文件中读取值并直接绑定为type类型的对象, 不创建中间的JSONObject和JSONArray
+	 * @param path
+	 * @param type
+	 * @return
+	 * @throws IOException
+	 * @throws URISyntaxException
+	 */
+	public static <T> T readBean(Path path, Class<T> type) throws IOException, URISyntaxException {
+		String json = read(path);
+		return (json == null || json.isEmpty()) ? null : new JSONTokener(json).readBean(type);
+	}
+
+	/**
+	 * 设置异步读取时解析文件内容的线程池, 默认为ForkJoinPool.commonPool()
+	 * @param executor
+	 */
+	public static void setAsyncExecutor(Executor executor) {
+		ASYNC_READER.setExecutor(executor);
+	}
+
+	/**
+	 * 设置同时进行的异步读取的最大数量, 超出数量的读取会排队等待
+	 * @param maxConcurrentReads
+	 */
+	public static void setMaxConcurrentReads(int maxConcurrentReads) {
+		ASYNC_READER.setMaxConcurrentReads(maxConcurrentReads);
+	}
+
+	/**
+	 * 异步读取JSON文件, 返回文件内容字符串. 读取过程不阻塞调用线程, 取消返回的future会中止读取
+	 * @param path
+	 * @return
+	 */
+	public static CompletableFuture<String> readAsync(Path path) {
+		return ASYNC_READER.read(path, json -> json);
+	}
+
+	/**
+	 * 异步从JSON文件中读取JSON对象, 解析在异步线程池中进行
+	 * @param path
+	 * @return
+	 */
+	public static CompletableFuture<JSONObject> readObjectAsync(Path path) {
+		return ASYNC_READER.read(path, json -> json.isEmpty() ? null : new JSONObject(json));
+	}
+
+	/**
+	 * 异步从JSON文件中读取JSON数组, 解析在异步线程池中进行
+	 * @param path
+	 * @return
+	 */
+	public static CompletableFuture<JSONArray> readArrayAsync(Path path) {
+		return ASYNC_READER.read(path, json -> json.isEmpty() ? null : new JSONArray(json));
+	}
+
 	/**
 	 * 从JSON文件中读取JSON数组, 如果是文件夹, 会递归读取文件夹里面的文件
 	 * @param jsonFile
@@ -99,7 +238,7 @@ public class JSON {
 		try (Stream<Path> stream = Files.list(path)) {
 			stream.filter(Files::isRegularFile).forEach(subFile -> {
 				try {
-					String subFileString = new String(Files.readAllBytes(subFile), Charset.forName("UTF-8"));
+					String subFileString = readText(subFile);
 					if (subFileString.isEmpty()) return;
 					jsonArray.add(toJSON(subFileString));
 				} catch (IOException e) {
@@ -110,6 +249,151 @@ public class JSON {
 		return jsonArray;
 	}
 
+	/**
+	 * 返回顶层JSON数组文件中元素的Spliterator, 元素在读取时才解析.
+	 * 小于2GB的文件通过内存映射读取, 并预先扫描出元素边界, 可以按元素拆分并行解析.
+	 * gzip或BlockCodec压缩的文件在单独的线程中解压, 更大的文件和压缩的文件按顺序从流中读取,
+	 * 数组读取结束或读取失败时关闭文件, 中途停止读取时应改用streamArray(path, parallel)并关闭返回的Stream
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static Spliterator<Object> arraySpliterator(Path path) throws IOException {
+		Reader reader = arrayReader(path);
+		return reader == null ? MappedArraySpliterator.of(path) : new ReaderArraySpliterator(reader, true);
+	}
+
+	/**
+	 * 不能内存映射的数组文件返回按顺序读取的Reader, 可以映射时返回null.
+	 * 压缩的文件在单独的线程中解压, 与解析同时进行
+	 */
+	private static Reader arrayReader(Path path) throws IOException {
+		if (Compression.isCompressed(path)) {
+			return new ReadAheadReader(new InputStreamReader(openStream(path), Charset.forName("UTF-8")));
+		}
+		if (Files.size(path) <= Integer.MAX_VALUE) {
+			return null;
+		}
+		return Files.newBufferedReader(path, Charset.forName("UTF-8"));
+	}
+
+	/**
+	 * 返回顶层JSON数组文件中元素的Stream, 元素在读取时才解析
+	 * 小于2GB的文件通过内存映射读取, 可以并行解析, 更大的文件按顺序从流中读取.
+	 * gzip或BlockCodec压缩的文件在单独的线程中解压, 与解析同时进行
+	 * @param path
+	 * @param parallel 是否并行解析
+	 * @return
+	 * @throws IOException
+	 */
+	public static Stream<Object> streamArray(Path path, boolean parallel) throws IOException {
+		Reader reader = arrayReader(path);
+		if (reader == null) {
+			return StreamSupport.stream(MappedArraySpliterator.of(path), parallel);
+		}
+		return StreamSupport.stream(new ReaderArraySpliterator(reader), parallel).onClose(() -> {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * 返回顶层JSON数组输入流中元素的Stream, 每次读取一个元素时才从流中读取并解析,
+	 * 并行时按批读取元素的原始字符串, 解析在各自的线程中进行. 输入流需要由调用者关闭.
+	 * gzip或BlockCodec压缩的输入流在单独的线程中解压, 关闭返回的Stream时停止解压
+	 * @param in UTF-8编码的输入流
+	 * @return
+	 */
+	public static Stream<Object> streamArray(InputStream in) {
+		InputStream decompressed;
+		try {
+			decompressed = Compression.decompress(in);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		Reader reader = new InputStreamReader(decompressed, Charset.forName("UTF-8"));
+		if (!Compression.isDecompressing(decompressed)) {
+			return StreamSupport.stream(new ReaderArraySpliterator(reader), false);
+		}
+		Reader readAhead = new ReadAheadReader(reader);
+		return StreamSupport.stream(new ReaderArraySpliterator(readAhead), false).onClose(() -> {
+			try {
+				readAhead.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * 预加载类路径中指定目录下的所有.json资源(包括子目录), 通过ClassLoader的输入流并行读取和解析,
+	 * 解析后的文档冻结后保存在内存中, 之后通过getResource()读取. 适合在启动时调用
+	 * @param prefixes 类路径中的目录, 例如"config", "data/templates"
+	 * @return 加载的资源数量
+	 */
+	public static int preload(String... prefixes) {
+		return ResourceRegistry.preload(JSON.class.getClassLoader(), prefixes);
+	}
+
+	/**
+	 * 预加载指定ClassLoader中目录下的所有.json资源, 每个ClassLoader的资源分别缓存, 之后通过getResource(loader, name)读取
+	 * @param loader 查找资源的ClassLoader, 例如应用或插件的ClassLoader
+	 * @param prefixes 类路径中的目录
+	 * @return 加载的资源数量
+	 */
+	public static int preload(ClassLoader loader, String... prefixes) {
+		return ResourceRegistry.preload(loader, prefixes);
+	}
+
+	/**
+	 * 读取类路径中的json资源, 返回冻结的JSONObject或JSONArray, 需要修改时通过copyOnWrite()或deepCopy()复制.
+	 * 预加载过的资源直接从内存中读取, 否则在第一次读取时加载并保存. 资源不存在时返回null
+	 * @param name 资源名称, 例如"config/app.json"
+	 * @return
+	 */
+	public static Object getResource(String name) {
+		return ResourceRegistry.get(JSON.class.getClassLoader(), name);
+	}
+
+	/**
+	 * 读取指定ClassLoader中的json资源, 返回冻结的JSONObject或JSONArray, 资源不存在时返回null
+	 * @param loader 查找资源的ClassLoader
+	 * @param name 资源名称
+	 * @return
+	 */
+	public static Object getResource(ClassLoader loader, String name) {
+		return ResourceRegistry.get(loader, name);
+	}
+
+	/**
+	 * 读取类路径中的json资源中的JSONObject, 返回冻结的对象
+	 * @param name
+	 * @return
+	 */
+	public static JSONObject getResourceObject(String name) {
+		Object document = getResource(name);
+		if (document != null && !(document instanceof JSONObject)) {
+			throw new JSONException("资源[" + name + "]不是JSONObject类型");
+		}
+		return (JSONObject) document;
+	}
+
+	/**
+	 * 读取类路径中的json资源中的JSONArray, 返回冻结的数组
+	 * @param name
+	 * @return
+	 */
+	public static JSONArray getResourceArray(String name) {
+		Object document = getResource(name);
+		if (document != null && !(document instanceof JSONArray)) {
+			throw new JSONException("资源[" + name + "]不是JSONArray类型");
+		}
+		return (JSONArray) document;
+	}
+
 	/**
 	 * 获取文件路径
 	 * @param jsonFile 文件路径字符串
@@ -3,10 +3,13 @@ package com.mxy.air.json;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * json数组包装器, 内部用一个list集合存储
@@ -16,10 +19,28 @@ import java.util.Map;
  */
 public class JSONArray extends JSON implements List<Object> {
 
-	private final List<Object> list;
+	/* 冻结和开启索引都不替换该对象, 已经取得的视图不会失效 */
+	private final FreezableList list;
+
+	/* 冻结后缓存的hash值, 0表示还未计算 */
+	private int hash;
 
 	public JSONArray() {
-		this.list = new ArrayList<Object>();
+		this(new FreezableList(new ArrayList<Object>()));
+	}
+
+	private JSONArray(FreezableList list) {
+		this.list = list;
+	}
+
+	/**
+	 * 使用指定的list作为内部存储, 不复制
+	 * 
+	 * @param list
+	 * @return
+	 */
+	static JSONArray backedBy(List<Object> list) {
+		return new JSONArray(new FreezableList(list));
 	}
 
 	/**
@@ -55,15 +76,121 @@ public class JSONArray extends JSON implements List<Object> {
 	 * @param array
 	 */
 	public JSONArray(Object array) {
+		this(new FreezableList(new ArrayList<>(length(array))));
+		for (int i = 0; i < Array.getLength(array); i++) {
+			this.list.add(JSONObject.wrap(Array.get(array, i)));
+		}
+
+	}
+
+	private static int length(Object array) {
 		if (!array.getClass().isArray()) {
 			throw new JSONException(array.getClass() + "不是一个数组");
 		}
-		int length = Array.getLength(array);
-		this.list = new ArrayList<>(length);
-		for (int i = 0; i < length; i++) {
-			this.list.add(JSONObject.wrap(Array.get(array, i)));
+		return Array.getLength(array);
+	}
+
+	/**
+	 * 冻结JSONArray, 冻结后当前数组及其包含的所有JSONObject和JSONArray都不可修改,
+	 * 修改时抛出UnsupportedOperationException. 冻结后的数组只计算一次hash值
+	 * 
+	 * @return
+	 */
+	public JSONArray freeze() {
+		if (list.isFrozen()) {
+			return this;
 		}
+		for (Object value : list) {
+			if (value instanceof JSONObject) {
+				((JSONObject) value).freeze();
+			} else if (value instanceof JSONArray) {
+				((JSONArray) value).freeze();
+			}
+		}
+		list.freeze();
+		return this;
+	}
 
+	/**
+	 * 是否已冻结
+	 * 
+	 * @return
+	 */
+	public boolean isFrozen() {
+		return list.isFrozen();
+	}
+
+	/**
+	 * 深度复制, 复制所有嵌套的JSONObject和JSONArray, 字符串和数值等其他值直接共用. 复制的数组没有冻结
+	 * 
+	 * @return
+	 */
+	public JSONArray deepCopy() {
+		List<Object> copy = new ArrayList<>(list.size());
+		for (Object value : list) {
+			copy.add(JSONObject.deepCopy(value));
+		}
+		return backedBy(copy);
+	}
+
+	/**
+	 * 写时复制. 当前数组会被冻结作为模板, 返回的数组与模板共用数据, 修改时只复制修改路径上的对象和数组.
+	 * 嵌套的对象和数组需要通过get()获取后修改, 遍历时得到的是模板中的只读对象, 已经通过get()取得的除外
+	 * 注意: 调用后当前数组本身也被冻结, 之后直接修改当前数组会抛出UnsupportedOperationException. 当前数组还需要修改时,
+	 * 先用deepCopy()复制一份再调用copyOnWrite(), 或者改为修改返回的数组
+	 * 
+	 * @return
+	 */
+	public JSONArray copyOnWrite() {
+		return (JSONArray) CopyOnWriteViews.writable(freeze());
+	}
+
+	/**
+	 * 为数组开启hash索引, contains(), indexOf()和remove(Object)查找字符串, 数值, 布尔值和null时不再逐个比较.
+	 * 索引在第一次查找时构建, 之后随add(), set(), remove()增量更新, 适用于在大数组中反复查找元素
+	 * 
+	 * @return
+	 */
+	public JSONArray indexed() {
+		list.index();
+		return this;
+	}
+
+	/**
+	 * 与List的hashCode规则相同. 冻结后的数组hash值只计算一次
+	 */
+	@Override
+	public int hashCode() {
+		if (!list.isFrozen()) {
+			return list.hashCode();
+		}
+		int h = hash;
+		if (h == 0) {
+			h = list.hashCode();
+			hash = h;
+		}
+		return h;
+	}
+
+	/**
+	 * 按内容比较. 两个数组都已冻结时先比较hash值, 不同则直接返回false
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (o instanceof JSONArray) {
+			JSONArray other = (JSONArray) o;
+			if (list.size() != other.list.size()) {
+				return false;
+			}
+			if (isFrozen() && other.isFrozen() && hashCode() != other.hashCode()) {
+				return false;
+			}
+			return list.same(other.list);
+		}
+		return o instanceof List && list.equals(o);
 	}
 
 	/**
@@ -86,7 +213,7 @@ public class JSONArray extends JSON implements List<Object> {
 	}
 
 	/**
-	 * 返回JSONArray内部的List对象
+	 * 返回JSONArray内部的List对象, 冻结后只读
 	 * 
 	 * @return
 	 */
@@ -100,12 +227,23 @@ public class JSONArray extends JSON implements List<Object> {
 	 * @return
 	 */
 	public List<Object> toList() {
-		List<Object> result = new ArrayList<>();
+		return toList(false);
+	}
+
+	/**
+	 * 将JSONArray转换为原始类型的List对象, 会复制所有嵌套的对象和数组
+	 * 
+	 * @param ordered
+	 *            嵌套的对象是否保持key的顺序
+	 * @return
+	 */
+	public List<Object> toList(boolean ordered) {
+		List<Object> result = new ArrayList<>(list.size());
 		for (Object object : list) {
 			if (object instanceof JSONObject) {
-				result.add(((JSONObject) object).toMap());
+				result.add(((JSONObject) object).toMap(ordered));
 			} else if (object instanceof JSONArray) {
-				result.add(((JSONArray) object).toList());
+				result.add(((JSONArray) object).toList(ordered));
 			} else {
 				result.add(object);
 			}
@@ -113,6 +251,16 @@ public class JSONArray extends JSON implements List<Object> {
 		return result;
 	}
 
+	/**
+	 * 返回原始类型的只读List视图, 不复制数据.
+	 * 嵌套的对象和数组在读取时才转换为对应的视图, 视图随当前数组的修改而变化, 调用freeze()或indexed()后仍然有效
+	 * 
+	 * @return
+	 */
+	public List<Object> asList() {
+		return new UnwrappedViews.ListView(list);
+	}
+
 	/**
 	 * 将JSONArray转换为Map List对象
 	 * 
@@ -275,4 +423,19 @@ public class JSONArray extends JSON implements List<Object> {
 		return list.subList(fromIndex, toIndex);
 	}
 
+	@Override
+	public void sort(Comparator<? super Object> c) {
+		list.sort(c);
+	}
+
+	@Override
+	public void replaceAll(UnaryOperator<Object> operator) {
+		list.replaceAll(operator);
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super Object> filter) {
+		return list.removeIf(filter);
+	}
+
 }
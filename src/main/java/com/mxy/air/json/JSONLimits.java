@@ -0,0 +1,67 @@
+package com.mxy.air.json;
+
+/**
+ * 解析时的限制, 用于安全地解析不可信的输入. 超出限制时立即抛出JSONException, 并给出超出限制的位置.
+ * 默认没有任何限制
+ * 
+ * @author mengxiangyun
+ *
+ */
+public class JSONLimits {
+
+	/* 最大嵌套层级 */
+	private int maxDepth = Integer.MAX_VALUE;
+
+	/* 单个文档的最大字符数 */
+	private int maxLength = Integer.MAX_VALUE;
+
+	/* 单个字符串的最大字符数, 包括key */
+	private int maxStringLength = Integer.MAX_VALUE;
+
+	/* 单个文档中值的最大数量, 包括对象的key-value对和数组元素 */
+	private int maxElements = Integer.MAX_VALUE;
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public JSONLimits setMaxDepth(int maxDepth) {
+		this.maxDepth = check(maxDepth);
+		return this;
+	}
+
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	public JSONLimits setMaxLength(int maxLength) {
+		this.maxLength = check(maxLength);
+		return this;
+	}
+
+	public int getMaxStringLength() {
+		return maxStringLength;
+	}
+
+	public JSONLimits setMaxStringLength(int maxStringLength) {
+		this.maxStringLength = check(maxStringLength);
+		return this;
+	}
+
+	public int getMaxElements() {
+		return maxElements;
+	}
+
+	public JSONLimits setMaxElements(int maxElements) {
+		this.maxElements = check(maxElements);
+		return this;
+	}
+
+	private static int check(int limit) {
+		if (limit < 1) {
+			throw new JSONException("限制必须大于0");
+		}
+		return limit;
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.mxy.air.json;
+
+/**
+ * JSON解析和格式化的统计监听器
+ * 通过JSON.setMetrics()注册, 每次解析或格式化完一个顶层的值后回调一次.
+ * 没有注册监听器时不计时, 也不创建统计对象
+ * 
+ * @author mengxiangyun
+ *
+ */
+public interface JSONMetrics {
+
+	/**
+	 * 解析完一个顶层的值
+	 * 
+	 * @param statistics
+	 */
+	default void parsed(JSONStatistics statistics) {
+	}
+
+	/**
+	 * 解析失败
+	 * 
+	 * @param e
+	 * @param position
+	 *            失败时读取到的位置
+	 */
+	default void parseFailed(RuntimeException e, int position) {
+	}
+
+	/**
+	 * 格式化完一个顶层的值
+	 * 
+	 * @param statistics
+	 */
+	default void serialized(JSONStatistics statistics) {
+	}
+
+	/**
+	 * 格式化失败
+	 * 
+	 * @param e
+	 */
+	default void serializeFailed(RuntimeException e) {
+	}
+
+}
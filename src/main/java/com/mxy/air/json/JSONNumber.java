@@ -0,0 +1,151 @@
+package com.mxy.air.json;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 延迟解析的数值, 保存json中数值的原文, 第一次读取数值时才解析. 输出时直接输出原文, 不需要格式化,
+ * 超出long范围的整数和小数也不会丢失精度. 通过JSONTokener.setLazyNumbers(true)启用
+ *
+ * @author mengxiangyun
+ *
+ */
+public final class JSONNumber extends Number {
+
+	private static final long serialVersionUID = 1L;
+
+	/* 数值的原文, 符合json的数值语法 */
+	private final String text;
+
+	/* 解析后的值, 整数为Integer, Long或BigInteger, 小数为Double, 第一次读取时解析 */
+	private transient Number value;
+
+	JSONNumber(String text) {
+		this.text = text;
+	}
+
+	/**
+	 * 是否符合json的数值语法 -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+	 *
+	 * @param text
+	 * @return
+	 */
+	static boolean isValid(String text) {
+		int length = text.length();
+		int i = 0;
+		if (i < length && text.charAt(i) == '-') {
+			i++;
+		}
+		int digits = i;
+		while (i < length && isDigit(text.charAt(i))) {
+			i++;
+		}
+		if (i == digits || (i - digits > 1 && text.charAt(digits) == '0')) {
+			return false;
+		}
+		if (i < length && text.charAt(i) == '.') {
+			int fraction = ++i;
+			while (i < length && isDigit(text.charAt(i))) {
+				i++;
+			}
+			if (i == fraction) {
+				return false;
+			}
+		}
+		if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+			i++;
+			if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+				i++;
+			}
+			int exponent = i;
+			while (i < length && isDigit(text.charAt(i))) {
+				i++;
+			}
+			if (i == exponent) {
+				return false;
+			}
+		}
+		return i == length;
+	}
+
+	private static boolean isDigit(char ch) {
+		return ch >= '0' && ch <= '9';
+	}
+
+	/**
+	 * 解析后的值, 与非延迟解析时的类型相同, 超出long范围的整数为BigInteger
+	 *
+	 * @return
+	 */
+	public Number value() {
+		Number result = value;
+		if (result == null) {
+			if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0 || text.startsWith("-0")) {
+				result = Double.valueOf(text);
+			} else if (text.length() < 19) {
+				long l = Long.parseLong(text);
+				result = l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE ? (Number) (int) l : (Number) l;
+			} else {
+				BigInteger big = new BigInteger(text);
+				result = big.bitLength() < 64 ? (Number) big.longValue() : (Number) big;
+			}
+			value = result;
+		}
+		return result;
+	}
+
+	/**
+	 * 按原文精确转换为BigDecimal
+	 *
+	 * @return
+	 */
+	public BigDecimal decimalValue() {
+		return new BigDecimal(text);
+	}
+
+	@Override
+	public int intValue() {
+		return value().intValue();
+	}
+
+	@Override
+	public long longValue() {
+		return value().longValue();
+	}
+
+	@Override
+	public float floatValue() {
+		return value().floatValue();
+	}
+
+	@Override
+	public double doubleValue() {
+		return value().doubleValue();
+	}
+
+	/**
+	 * 与另一个JSONNumber解析后的值相等时返回true. 与Integer等解析后的值不相等, 保证equals对称;
+	 * JSONObject和JSONArray中的比较按解析后的值进行, 所以延迟解析不影响contains(), indexOf()和equals()的结果
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		return obj instanceof JSONNumber && value().equals(((JSONNumber) obj).value());
+	}
+
+	@Override
+	public int hashCode() {
+		return value().hashCode();
+	}
+
+	/**
+	 * 数值的原文
+	 */
+	@Override
+	public String toString() {
+		return text;
+	}
+
+}
@@ -9,6 +9,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * JSON对象包装器, 内部用一个的map集合存储.
@@ -18,13 +19,17 @@ import java.util.Set;
  */
 public class JSONObject extends JSON implements Map<String, Object> {
 
-	private final Map<String, Object> map;
+	/* 冻结时不替换该对象, 已经取得的视图不会失效 */
+	private final FreezableMap map;
+
+	/* 冻结后缓存的hash值, 0表示还未计算 */
+	private int hash;
 
 	/**
 	 * map初始化为LinkedHashMap类型, 保证元素的顺序
 	 */
 	public JSONObject() {
-		this.map = new LinkedHashMap<>();
+		this(new FreezableMap(new LinkedHashMap<>()));
 	}
 
 	/**
@@ -97,6 +102,25 @@ public class JSONObject extends JSON implements Map<String, Object> {
 		this.map = tokener.readObject().map;
 	}
 
+	/**
+	 * 使用指定的存储, 供子类使用不同的存储结构
+	 * 
+	 * @param map
+	 */
+	JSONObject(FreezableMap map) {
+		this.map = map;
+	}
+
+	/**
+	 * 使用指定的map作为内部存储, 不复制
+	 * 
+	 * @param map
+	 * @return
+	 */
+	static JSONObject backedBy(Map<String, Object> map) {
+		return new JSONObject(new FreezableMap(map));
+	}
+
 	/**
 	 * 通过一个key-value对构建JSONObject对象
 	 * @param key
@@ -140,17 +164,17 @@ public class JSONObject extends JSON implements Map<String, Object> {
 
 	public long getLong(String key) {
 		Object object = get(key);
-		return object instanceof Number ? ((Number) object).longValue() : Long.parseLong((String) object);
+		return object instanceof Number ? ((Number) object).longValue() : Long.parseLong(object.toString());
 	}
 
 	public int getInt(String key) {
 		Object object = get(key);
-		return object instanceof Number ? ((Number) object).intValue() : Integer.parseInt((String) object);
+		return object instanceof Number ? ((Number) object).intValue() : Integer.parseInt(object.toString());
 	}
 
 	public double getDouble(String key) {
 		Object object = get(key);
-		return object instanceof Number ? ((Number) object).doubleValue() : Double.parseDouble((String) object);
+		return object instanceof Number ? ((Number) object).doubleValue() : Double.parseDouble(object.toString());
 	}
 
 	/**
@@ -184,43 +208,52 @@ public class JSONObject extends JSON implements Map<String, Object> {
 	}
 
 	/*
-	 * 添加对枚举类型的基本方法, key为枚举名称对应的小写字符串
+	 * 添加对枚举类型的基本方法, key默认为枚举名称对应的小写字符串, 每个枚举类型的key只计算一次
+	 */
+
+	/**
+	 * 设置枚举转换为key的规则, 默认为枚举名称对应的小写字符串
+	 * 
+	 * @param naming
 	 */
+	public static void setEnumKeyNaming(Function<Enum<?>, String> naming) {
+		EnumKeys.setNaming(naming);
+	}
 
 	public boolean containsKey(Enum<?> e) {
-		return containsKey(e.toString().toLowerCase());
+		return containsKey(EnumKeys.key(e));
 	}
 
 	public Object get(Enum<?> e) {
-		return get(e.toString().toLowerCase());
+		return get(EnumKeys.key(e));
 	}
 
 	public String getString(Enum<?> e) {
-		return getString(e.toString().toLowerCase());
+		return getString(EnumKeys.key(e));
 	}
 	
 	public boolean getBoolean(Enum<?> e) {
-		return getBoolean(e.toString().toLowerCase());
+		return getBoolean(EnumKeys.key(e));
 	}
 	
 	public long getLong(Enum<?> e) {
-		return getLong(e.toString().toLowerCase());
+		return getLong(EnumKeys.key(e));
 	}
 	
 	public int getInt(Enum<?> e) {
-		return getInt(e.toString().toLowerCase());
+		return getInt(EnumKeys.key(e));
 	}
 	
 	public double getDouble(Enum<?> e) {
-		return getDouble(e.toString().toLowerCase());
+		return getDouble(EnumKeys.key(e));
 	}
 
 	public JSONObject getObject(Enum<?> e) {
-		return getObject(e.toString().toLowerCase());
+		return getObject(EnumKeys.key(e));
 	}
 
 	public JSONArray getArray(Enum<?> e) {
-		return getArray(e.toString().toLowerCase());
+		return getArray(EnumKeys.key(e));
 	}
 	
 	/**
@@ -230,7 +263,7 @@ public class JSONObject extends JSON implements Map<String, Object> {
 	 * @param value
 	 */
 	public JSONObject put(Enum<?> e, Object value) {
-		this.map.put(e.toString().toLowerCase(), value);
+		this.map.put(EnumKeys.key(e), value);
 		return this;
 	}
 	
@@ -241,7 +274,7 @@ public class JSONObject extends JSON implements Map<String, Object> {
 	 * @return
 	 */
 	public Object remove(Enum<?> e) {
-		return this.map.remove(e.toString().toLowerCase());
+		return this.map.remove(EnumKeys.key(e));
 	}
 
 	/**
@@ -299,6 +332,136 @@ public class JSONObject extends JSON implements Map<String, Object> {
 		return this;
 	}
 
+	/**
+	 * 冻结JSONObject, 冻结后当前对象及其包含的所有JSONObject和JSONArray都不可修改,
+	 * 修改时抛出UnsupportedOperationException. 冻结后的对象只计算一次hash值, 适合作为HashMap的key
+	 * 
+	 * @return
+	 */
+	public JSONObject freeze() {
+		if (map.isFrozen()) {
+			return this;
+		}
+		for (Object value : map.values()) {
+			if (value instanceof JSONObject) {
+				((JSONObject) value).freeze();
+			} else if (value instanceof JSONArray) {
+				((JSONArray) value).freeze();
+			}
+		}
+		map.freeze();
+		return this;
+	}
+
+	/**
+	 * 是否已冻结
+	 * 
+	 * @return
+	 */
+	public boolean isFrozen() {
+		return map.isFrozen();
+	}
+
+	/**
+	 * 深度复制, 复制所有嵌套的JSONObject和JSONArray, 字符串和数值等其他值直接共用. 复制的对象没有冻结
+	 * 
+	 * @return
+	 */
+	public JSONObject deepCopy() {
+		if (map.backing() instanceof SharedKeyMap) {
+			SharedKeyMap copy = ((SharedKeyMap) map.backing()).copy(JSONObject::deepCopy);
+			if (copy != null) {
+				return backedBy(copy);
+			}
+		}
+		Map<String, Object> copy = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+		for (Entry<String, Object> entry : map.entrySet()) {
+			copy.put(entry.getKey(), deepCopy(entry.getValue()));
+		}
+		return backedBy(copy);
+	}
+
+	/**
+	 * 复制JSONObject和JSONArray, 其他值不变
+	 */
+	static Object deepCopy(Object value) {
+		if (value instanceof JSONObject) {
+			return ((JSONObject) value).deepCopy();
+		} else if (value instanceof JSONArray) {
+			return ((JSONArray) value).deepCopy();
+		}
+		return value;
+	}
+
+	/**
+	 * 延迟解析的值转换为解析后的值, 延迟解码的字符串转换为String, 其他值不变
+	 */
+	static Object unwrap(Object value) {
+		if (value instanceof JSONNumber) {
+			return ((JSONNumber) value).value();
+		}
+		if (value instanceof JSONString) {
+			return value.toString();
+		}
+		return value;
+	}
+
+	/**
+	 * 按解析后的值比较两个元素, JSONObject和JSONArray中查找和比较元素时使用
+	 */
+	static boolean same(Object a, Object b) {
+		if (a == b) {
+			return true;
+		}
+		return a != null && b != null && unwrap(a).equals(unwrap(b));
+	}
+
+	/**
+	 * 写时复制. 当前对象会被冻结作为模板, 返回的对象与模板共用数据, 修改时只复制修改路径上的对象和数组,
+	 * 适合从同一个模板反复复制后修改少量的值. 嵌套的对象和数组需要通过get()获取后修改, 遍历时得到的是模板中的只读对象, 已经通过get()取得的除外
+	 * 注意: 调用后当前对象本身也被冻结, 之后直接修改当前对象会抛出UnsupportedOperationException. 当前对象还需要修改时,
+	 * 先用deepCopy()复制一份再调用copyOnWrite(), 或者改为修改返回的对象
+	 * 
+	 * @return
+	 */
+	public JSONObject copyOnWrite() {
+		return (JSONObject) CopyOnWriteViews.writable(freeze());
+	}
+
+	/**
+	 * 与Map的hashCode规则相同. 冻结后的对象hash值只计算一次, 嵌套的冻结对象同样使用缓存的hash值
+	 */
+	@Override
+	public int hashCode() {
+		if (!map.isFrozen()) {
+			return map.hashCode();
+		}
+		int h = hash;
+		if (h == 0) {
+			h = map.hashCode();
+			hash = h;
+		}
+		return h;
+	}
+
+	/**
+	 * 按内容比较. 两个对象都已冻结时先比较hash值, 不同则直接返回false
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (o instanceof JSONObject) {
+			JSONObject other = (JSONObject) o;
+			if (isFrozen() && other.isFrozen() && hashCode() != other.hashCode()) {
+				return false;
+			}
+			return map.same(other.map);
+		}
+		return o instanceof Map && map.equals(o);
+	}
+
 	/**
 	 * 输出json字符串, 格式紧凑, 只有一行
 	 */
@@ -343,7 +506,7 @@ public class JSONObject extends JSON implements Map<String, Object> {
 	}
 
 	/**
-	 * 返回JSONObject内部Map对象
+	 * 返回JSONObject内部Map对象, 冻结后只读
 	 * 
 	 * @return
 	 */
@@ -351,25 +514,54 @@ public class JSONObject extends JSON implements Map<String, Object> {
 		return this.map;
 	}
 
+	/**
+	 * 实际保存数据的map, 修改时不检查冻结
+	 */
+	Map<String, Object> backing() {
+		return map.backing();
+	}
+
 	/**
 	 * 将JSONObject转换成原始类型的Map对象
 	 * 
 	 * @return
 	 */
 	public Map<String, Object> toMap() {
-		Map<String, Object> result = new HashMap<>();
+		return toMap(false);
+	}
+
+	/**
+	 * 将JSONObject转换成原始类型的Map对象, 会复制所有嵌套的对象和数组
+	 * 
+	 * @param ordered
+	 *            是否保持key的顺序, 为true时使用LinkedHashMap, 否则使用HashMap
+	 * @return
+	 */
+	public Map<String, Object> toMap(boolean ordered) {
+		Map<String, Object> result = ordered ? new LinkedHashMap<>(this.map.size() * 4 / 3 + 1)
+				: new HashMap<>(this.map.size() * 4 / 3 + 1);
 		for (Entry<String, Object> entry : this.map.entrySet()) {
 			Object value = entry.getValue();
 			if (value instanceof JSONObject) {
-				value = ((JSONObject) value).toMap();
+				value = ((JSONObject) value).toMap(ordered);
 			} else if (value instanceof JSONArray) {
-				value = ((JSONArray) value).toList();
+				value = ((JSONArray) value).toList(ordered);
 			}
 			result.put(entry.getKey(), value);
 		}
 		return result;
 	}
-	
+
+	/**
+	 * 返回原始类型的只读Map视图, 不复制数据, 保持key的顺序.
+	 * 嵌套的对象和数组在读取时才转换为对应的视图, 视图随当前对象的修改而变化, 调用freeze()后仍然有效
+	 * 
+	 * @return
+	 */
+	public Map<String, Object> asMap() {
+		return new UnwrappedViews.MapView(this.map);
+	}
+
 	/**
 	 * 将JSONObject转换成指定类型, 通过setter方法将JSON对象的属性设置到实例对象中的属性中
 	 * @param object
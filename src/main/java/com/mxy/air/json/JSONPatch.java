@@ -0,0 +1,502 @@
+package com.mxy.air.json;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * JSON Patch (RFC 6902)
+ * diff方法比较两个JSON文档, 生成将源文档转换为目标文档的操作数组
+ * apply方法将操作数组直接应用到文档上, 修改原文档
+ *
+ * 比较时先计算并缓存每个子树的hash值, hash值不同的子树一定不相等, hash值相同时才逐个比较元素.
+ * 数值按大小比较, 1, 1L和1.0相等.
+ * 数组使用最长公共子序列(LCS)比较, 超过大小上限时按位置逐个比较.
+ *
+ * @author mengxiangyun
+ *
+ */
+public class JSONPatch {
+
+	/* 使用LCS比较数组的上限, 两个数组(去掉相同的头尾后)长度的乘积超过该值时按位置比较 */
+	private static final int LCS_CUTOFF = 1 << 20;
+
+	/* 子树的hash值缓存, 以对象本身作为key */
+	private final Map<Object, Integer> hashes = new IdentityHashMap<>();
+
+	/* 生成的操作 */
+	private final JSONArray operations = new JSONArray();
+
+	private JSONPatch() {
+	}
+
+	/**
+	 * 比较两个JSON文档, 返回将source转换为target的JSON Patch操作数组
+	 * 操作中的值直接引用target中的对象, 不会复制
+	 *
+	 * @param source
+	 * @param target
+	 * @return
+	 */
+	public static JSONArray diff(Object source, Object target) {
+		JSONPatch patch = new JSONPatch();
+		patch.diff("", source, target);
+		return patch.operations;
+	}
+
+	/**
+	 * 将JSON Patch操作数组应用到文档上, 文档会被直接修改.
+	 * 如果操作替换了整个文档(path为""), 返回新的文档, 否则返回原文档.
+	 * 操作失败时抛出JSONException, 此时之前的操作已经生效, 不会回滚
+	 *
+	 * @param document
+	 * @param patch
+	 * @return
+	 */
+	public static Object apply(Object document, JSONArray patch) {
+		for (Object element : patch) {
+			if (!(element instanceof JSONObject)) {
+				throw new JSONException("JSON Patch 操作必须是JSONObject类型");
+			}
+			document = applyOperation(document, (JSONObject) element);
+		}
+		return document;
+	}
+
+	/*
+	 * 比较
+	 */
+
+	private void diff(String path, Object source, Object target) {
+		if (same(source, target)) {
+			return;
+		}
+		if (source instanceof JSONObject && target instanceof JSONObject) {
+			diffObject(path, (JSONObject) source, (JSONObject) target);
+		} else if (source instanceof JSONArray && target instanceof JSONArray) {
+			diffArray(path, (JSONArray) source, (JSONArray) target);
+		} else {
+			operation("replace", path).put("value", target);
+		}
+	}
+
+	private void diffObject(String path, JSONObject source, JSONObject target) {
+		for (Entry<String, Object> entry : source.entrySet()) {
+			String key = entry.getKey();
+			String childPath = path + "/" + escape(key);
+			if (!target.containsKey(key)) {
+				operation("remove", childPath);
+			} else {
+				diff(childPath, entry.getValue(), target.get(key));
+			}
+		}
+		for (Entry<String, Object> entry : target.entrySet()) {
+			if (!source.containsKey(entry.getKey())) {
+				operation("add", path + "/" + escape(entry.getKey())).put("value", entry.getValue());
+			}
+		}
+	}
+
+	private void diffArray(String path, JSONArray source, JSONArray target) {
+		// 跳过相同的头部和尾部
+		int start = 0;
+		int sourceEnd = source.size();
+		int targetEnd = target.size();
+		while (start < sourceEnd && start < targetEnd && same(source.get(start), target.get(start))) {
+			start++;
+		}
+		while (sourceEnd > start && targetEnd > start && same(source.get(sourceEnd - 1), target.get(targetEnd - 1))) {
+			sourceEnd--;
+			targetEnd--;
+		}
+		int sourceLength = sourceEnd - start;
+		int targetLength = targetEnd - start;
+		if ((long) sourceLength * targetLength <= LCS_CUTOFF) {
+			diffArrayLcs(path, source, target, start, sourceLength, targetLength);
+		} else {
+			diffArrayPositional(path, source, target, start, sourceLength, targetLength);
+		}
+	}
+
+	/**
+	 * 通过最长公共子序列比较数组, 不在公共子序列中的元素被删除或添加, 同一位置同时删除和添加的元素合并为替换
+	 */
+	private void diffArrayLcs(String path, JSONArray source, JSONArray target, int start, int sourceLength,
+			int targetLength) {
+		// lcs[i][j] 为 source[i..] 与 target[j..] 的最长公共子序列长度
+		int[][] lcs = new int[sourceLength + 1][targetLength + 1];
+		for (int i = sourceLength - 1; i >= 0; i--) {
+			for (int j = targetLength - 1; j >= 0; j--) {
+				if (same(source.get(start + i), target.get(start + j))) {
+					lcs[i][j] = lcs[i + 1][j + 1] + 1;
+				} else {
+					lcs[i][j] = Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+				}
+			}
+		}
+		int i = 0;
+		int j = 0;
+		int index = start; // 当前元素在修改中的数组里的位置
+		while (i < sourceLength || j < targetLength) {
+			if (i < sourceLength && j < targetLength) {
+				Object s = source.get(start + i);
+				Object t = target.get(start + j);
+				if (same(s, t)) {
+					i++;
+					j++;
+					index++;
+				} else if (lcs[i][j] == lcs[i + 1][j + 1]) {
+					diff(path + "/" + index, s, t);
+					i++;
+					j++;
+					index++;
+				} else if (lcs[i + 1][j] >= lcs[i][j + 1]) {
+					operation("remove", path + "/" + index);
+					i++;
+				} else {
+					operation("add", path + "/" + index).put("value", t);
+					j++;
+					index++;
+				}
+			} else if (i < sourceLength) {
+				operation("remove", path + "/" + index);
+				i++;
+			} else {
+				operation("add", path + "/" + index).put("value", target.get(start + j));
+				j++;
+				index++;
+			}
+		}
+	}
+
+	/**
+	 * 按位置比较数组, 多余的元素从尾部删除, 缺少的元素添加到尾部
+	 */
+	private void diffArrayPositional(String path, JSONArray source, JSONArray target, int start,
+			int sourceLength, int targetLength) {
+		int common = Math.min(sourceLength, targetLength);
+		for (int i = 0; i < common; i++) {
+			diff(path + "/" + (start + i), source.get(start + i), target.get(start + i));
+		}
+		for (int i = sourceLength - 1; i >= common; i--) {
+			operation("remove", path + "/" + (start + i));
+		}
+		for (int i = common; i < targetLength; i++) {
+			operation("add", path + "/" + (start + i)).put("value", target.get(start + i));
+		}
+	}
+
+	private JSONObject operation(String op, String path) {
+		JSONObject operation = new JSONObject();
+		operation.put("op", op);
+		operation.put("path", path);
+		operations.add(operation);
+		return operation;
+	}
+
+	/**
+	 * 两个值是否相等, hash值不同时直接返回false
+	 */
+	private boolean same(Object a, Object b) {
+		if (a == b) {
+			return true;
+		}
+		if (a == null || b == null || hash(a) != hash(b)) {
+			return false;
+		}
+		if (a instanceof JSONObject && b instanceof JSONObject) {
+			JSONObject x = (JSONObject) a;
+			JSONObject y = (JSONObject) b;
+			if (x.size() != y.size()) {
+				return false;
+			}
+			for (Entry<String, Object> entry : x.entrySet()) {
+				Object other = y.get(entry.getKey());
+				if ((other == null && !y.containsKey(entry.getKey())) || !same(entry.getValue(), other)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (a instanceof JSONArray && b instanceof JSONArray) {
+			JSONArray x = (JSONArray) a;
+			JSONArray y = (JSONArray) b;
+			if (x.size() != y.size()) {
+				return false;
+			}
+			for (int i = 0; i < x.size(); i++) {
+				if (!same(x.get(i), y.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (a instanceof Number && b instanceof Number) {
+			return sameNumber((Number) a, (Number) b);
+		}
+		return JSONObject.unwrap(a).equals(JSONObject.unwrap(b));
+	}
+
+	/**
+	 * 按数值比较, 与JSONSchema中enum的比较规则相同
+	 */
+	private static boolean sameNumber(Number a, Number b) {
+		if (integral(a) && integral(b)) {
+			return a.longValue() == b.longValue();
+		}
+		double x = a.doubleValue();
+		double y = b.doubleValue();
+		if (Double.isNaN(x) || Double.isInfinite(x) || Double.isNaN(y) || Double.isInfinite(y)) {
+			return Double.compare(x, y) == 0;
+		}
+		return decimal(a).compareTo(decimal(b)) == 0;
+	}
+
+	private static boolean integral(Number n) {
+		return n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte;
+	}
+
+	private static BigDecimal decimal(Number n) {
+		if (n instanceof BigDecimal) {
+			return (BigDecimal) n;
+		}
+		if (n instanceof BigInteger) {
+			return new BigDecimal((BigInteger) n);
+		}
+		return integral(n) ? BigDecimal.valueOf(n.longValue()) : new BigDecimal(n.toString());
+	}
+
+	/**
+	 * 计算子树的hash值, 与Map和List的hashCode规则相同, 只是数值的hash值由double值计算, 相等的数值hash值相同.
+	 * JSONObject和JSONArray的hash值会被缓存
+	 */
+	private int hash(Object value) {
+		if (value == null) {
+			return 0;
+		}
+		if (value instanceof Number) {
+			double d = ((Number) value).doubleValue();
+			return d == 0 ? 0 : Double.hashCode(d); // 0.0和-0.0相等
+		}
+		if (!(value instanceof JSONObject) && !(value instanceof JSONArray)) {
+			return value.hashCode();
+		}
+		Integer cached = hashes.get(value);
+		if (cached != null) {
+			return cached;
+		}
+		int h;
+		if (value instanceof JSONObject) {
+			h = 0;
+			for (Entry<String, Object> entry : ((JSONObject) value).entrySet()) {
+				h += entry.getKey().hashCode() ^ hash(entry.getValue());
+			}
+		} else {
+			h = 1;
+			for (Object element : (JSONArray) value) {
+				h = 31 * h + hash(element);
+			}
+		}
+		hashes.put(value, h);
+		return h;
+	}
+
+	/*
+	 * 应用
+	 */
+
+	private static Object applyOperation(Object document, JSONObject operation) {
+		String op = operation.getString("op");
+		String path = operation.getString("path");
+		if (op == null || path == null) {
+			throw new JSONException("JSON Patch 操作缺少op或path: " + operation);
+		}
+		switch (op) {
+		case "add":
+			return add(document, path, value(operation));
+		case "remove":
+			remove(document, path);
+			return document;
+		case "replace":
+			if (path.isEmpty()) {
+				return value(operation);
+			}
+			remove(document, path);
+			return add(document, path, value(operation));
+		case "move": {
+			String from = from(operation);
+			if (path.equals(from)) {
+				return document;
+			}
+			if (path.startsWith(from + "/")) {
+				throw new JSONException("不能将[" + from + "]移动到它的子节点[" + path + "]");
+			}
+			Object value = remove(document, from);
+			return add(document, path, value);
+		}
+		case "copy":
+			// 复制的值与原值互不影响
+			return add(document, path, JSONObject.deepCopy(get(document, from(operation))));
+		case "test": {
+			Object actual = get(document, path);
+			Object expected = operation.get("value");
+			if (!new JSONPatch().same(actual, expected)) {
+				throw new JSONException("JSON Patch 测试失败, [" + path + "]的值是" + actual + ", 期望值是" + expected);
+			}
+			return document;
+		}
+		default:
+			throw new JSONException("不支持的JSON Patch 操作: " + op);
+		}
+	}
+
+	private static Object value(JSONObject operation) {
+		if (!operation.containsKey("value")) {
+			throw new JSONException("JSON Patch 操作缺少value: " + operation);
+		}
+		return operation.get("value");
+	}
+
+	private static String from(JSONObject operation) {
+		String from = operation.getString("from");
+		if (from == null) {
+			throw new JSONException("JSON Patch 操作缺少from: " + operation);
+		}
+		return from;
+	}
+
+	private static Object add(Object document, String path, Object value) {
+		if (path.isEmpty()) {
+			return value;
+		}
+		List<String> tokens = parse(path);
+		Object parent = resolve(document, tokens, tokens.size() - 1, path);
+		String last = tokens.get(tokens.size() - 1);
+		if (parent instanceof JSONObject) {
+			((JSONObject) parent).put(last, value);
+		} else if (parent instanceof JSONArray) {
+			JSONArray array = (JSONArray) parent;
+			if ("-".equals(last)) {
+				array.add(value);
+			} else {
+				array.add(index(last, array.size(), path), value);
+			}
+		} else {
+			throw new JSONException("路径不存在: " + path);
+		}
+		return document;
+	}
+
+	private static Object remove(Object document, String path) {
+		if (path.isEmpty()) {
+			throw new JSONException("不能删除整个文档");
+		}
+		List<String> tokens = parse(path);
+		Object parent = resolve(document, tokens, tokens.size() - 1, path);
+		String last = tokens.get(tokens.size() - 1);
+		if (parent instanceof JSONObject) {
+			JSONObject object = (JSONObject) parent;
+			if (!object.containsKey(last)) {
+				throw new JSONException("路径不存在: " + path);
+			}
+			return object.remove(last);
+		} else if (parent instanceof JSONArray) {
+			JSONArray array = (JSONArray) parent;
+			return array.remove(index(last, array.size() - 1, path));
+		}
+		throw new JSONException("路径不存在: " + path);
+	}
+
+	private static Object get(Object document, String path) {
+		List<String> tokens = parse(path);
+		return resolve(document, tokens, tokens.size(), path);
+	}
+
+	/**
+	 * 按路径的前count个节点查找值
+	 */
+	private static Object resolve(Object document, List<String> tokens, int count, String path) {
+		Object current = document;
+		for (int i = 0; i < count; i++) {
+			String token = tokens.get(i);
+			if (current instanceof JSONObject) {
+				JSONObject object = (JSONObject) current;
+				if (!object.containsKey(token)) {
+					throw new JSONException("路径不存在: " + path);
+				}
+				current = object.get(token);
+			} else if (current instanceof JSONArray) {
+				JSONArray array = (JSONArray) current;
+				current = array.get(index(token, array.size() - 1, path));
+			} else {
+				throw new JSONException("路径不存在: " + path);
+			}
+		}
+		return current;
+	}
+
+	private static int index(String token, int max, String path) {
+		if (token.isEmpty() || (token.length() > 1 && token.charAt(0) == '0')) {
+			throw new JSONException("无效的数组索引: " + path);
+		}
+		for (int i = 0; i < token.length(); i++) {
+			char c = token.charAt(i);
+			if (c < '0' || c > '9') {
+				throw new JSONException("无效的数组索引: " + path);
+			}
+		}
+		int index;
+		try {
+			index = Integer.parseInt(token);
+		} catch (NumberFormatException e) {
+			throw new JSONException("无效的数组索引: " + path, e);
+		}
+		if (index > max) {
+			throw new JSONException("数组索引越界: " + path);
+		}
+		return index;
+	}
+
+	/**
+	 * 解析JSON Pointer (RFC 6901), ""表示整个文档
+	 */
+	private static List<String> parse(String pointer) {
+		if (pointer.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (pointer.charAt(0) != '/') {
+			throw new JSONException("JSON Pointer 必须以'/'开头: " + pointer);
+		}
+		List<String> tokens = new ArrayList<>();
+		int start = 1;
+		while (true) {
+			int end = pointer.indexOf('/', start);
+			String token = end < 0 ? pointer.substring(start) : pointer.substring(start, end);
+			tokens.add(unescape(token));
+			if (end < 0) {
+				return tokens;
+			}
+			start = end + 1;
+		}
+	}
+
+	private static String escape(String token) {
+		if (token.indexOf('~') < 0 && token.indexOf('/') < 0) {
+			return token;
+		}
+		return token.replace("~", "~0").replace("/", "~1");
+	}
+
+	private static String unescape(String token) {
+		if (token.indexOf('~') < 0) {
+			return token;
+		}
+		return token.replace("~1", "/").replace("~0", "~");
+	}
+
+}
@@ -0,0 +1,455 @@
+package com.mxy.air.json;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * 预编译的JSON结构约束, 支持类型, 必需的key, 枚举值, 数值范围和字符串长度.
+ * 通过JSONTokener.setSchema()在解析的同时校验, 不符合约束的输入在读取到时立即失败,
+ * 设置了skipUnknown()的对象在解析时直接跳过未定义的key, 不会创建对应的值.
+ *
+ * 可以通过静态方法构建, 也可以从JSON Schema文档编译, 支持的关键字为
+ * type, properties, required, enum, minimum, maximum, minLength, maxLength, items, additionalProperties(只支持布尔值),
+ * 以及不影响校验的$schema, $id, $comment, title, description, default, examples. 包含其他关键字的文档编译时抛出JSONException,
+ * 避免pattern, oneOf等约束被静默忽略
+ *
+ * @author mengxiangyun
+ *
+ */
+public class JSONSchema {
+
+	/* 类型 */
+	static final int OBJECT = 1;
+	static final int ARRAY = 1 << 1;
+	static final int STRING = 1 << 2;
+	static final int NUMBER = 1 << 3;
+	static final int INTEGER = 1 << 4;
+	static final int BOOLEAN = 1 << 5;
+	static final int NULL = 1 << 6;
+	static final int ANY = OBJECT | ARRAY | STRING | NUMBER | INTEGER | BOOLEAN | NULL;
+
+	/* 未定义的key的处理方式 */
+	static final int UNKNOWN_ALLOW = 0;
+	static final int UNKNOWN_SKIP = 1;
+	static final int UNKNOWN_REJECT = 2;
+
+	/* 允许的类型 */
+	private int types;
+
+	/* 对象的属性 */
+	private final Map<String, JSONSchema> properties = new HashMap<>();
+
+	/* 对象必需的key */
+	private final List<String> required = new ArrayList<>();
+
+	private int unknownKeys = UNKNOWN_ALLOW;
+
+	/* 数组元素 */
+	private JSONSchema items;
+
+	/* 枚举值 */
+	private Set<Object> enums;
+
+	private double minimum = Double.NEGATIVE_INFINITY;
+
+	private double maximum = Double.POSITIVE_INFINITY;
+
+	/* compile()支持的关键字 */
+	private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList("type", "properties", "required", "enum",
+			"minimum", "maximum", "minLength", "maxLength", "items", "additionalProperties", "$schema", "$id",
+			"$comment", "title", "description", "default", "examples"));
+
+	private int minLength = 0;
+
+	private int maxLength = Integer.MAX_VALUE;
+
+	private JSONSchema(int types) {
+		this.types = types;
+	}
+
+	public static JSONSchema any() {
+		return new JSONSchema(ANY);
+	}
+
+	public static JSONSchema object() {
+		return new JSONSchema(OBJECT);
+	}
+
+	public static JSONSchema array() {
+		return new JSONSchema(ARRAY);
+	}
+
+	public static JSONSchema array(JSONSchema items) {
+		return new JSONSchema(ARRAY).items(items);
+	}
+
+	public static JSONSchema string() {
+		return new JSONSchema(STRING);
+	}
+
+	/**
+	 * 数值类型, 包括整数
+	 *
+	 * @return
+	 */
+	public static JSONSchema number() {
+		return new JSONSchema(NUMBER | INTEGER);
+	}
+
+	public static JSONSchema integer() {
+		return new JSONSchema(INTEGER);
+	}
+
+	public static JSONSchema bool() {
+		return new JSONSchema(BOOLEAN);
+	}
+
+	public static JSONSchema nullValue() {
+		return new JSONSchema(NULL);
+	}
+
+	/**
+	 * 允许值为null
+	 *
+	 * @return
+	 */
+	public JSONSchema nullable() {
+		types |= NULL;
+		return this;
+	}
+
+	/**
+	 * 定义对象的属性
+	 *
+	 * @param name
+	 * @param schema
+	 * @return
+	 */
+	public JSONSchema property(String name, JSONSchema schema) {
+		properties.put(name, schema);
+		return this;
+	}
+
+	/**
+	 * 定义对象必需的key. 必需的key视为已定义, 没有通过property()定义时值不受限制,
+	 * 设置了skipUnknown()或rejectUnknown()时也不会被跳过或拒绝
+	 *
+	 * @param names
+	 * @return
+	 */
+	public JSONSchema required(String... names) {
+		for (String name : names) {
+			if (!required.contains(name)) {
+				required.add(name);
+			}
+			properties.putIfAbsent(name, any());
+		}
+		return this;
+	}
+
+	/**
+	 * 解析时跳过未定义的key, 不创建对应的值
+	 *
+	 * @return
+	 */
+	public JSONSchema skipUnknown() {
+		unknownKeys = UNKNOWN_SKIP;
+		return this;
+	}
+
+	/**
+	 * 存在未定义的key时校验失败
+	 *
+	 * @return
+	 */
+	public JSONSchema rejectUnknown() {
+		unknownKeys = UNKNOWN_REJECT;
+		return this;
+	}
+
+	/**
+	 * 定义数组元素
+	 *
+	 * @param items
+	 * @return
+	 */
+	public JSONSchema items(JSONSchema items) {
+		this.items = items;
+		return this;
+	}
+
+	/**
+	 * 允许的值
+	 *
+	 * @param values
+	 * @return
+	 */
+	public JSONSchema enums(Object... values) {
+		enums = new LinkedHashSet<>();
+		Collections.addAll(enums, values);
+		return this;
+	}
+
+	public JSONSchema minimum(double minimum) {
+		this.minimum = minimum;
+		return this;
+	}
+
+	public JSONSchema maximum(double maximum) {
+		this.maximum = maximum;
+		return this;
+	}
+
+	public JSONSchema minLength(int minLength) {
+		this.minLength = minLength;
+		return this;
+	}
+
+	public JSONSchema maxLength(int maxLength) {
+		this.maxLength = maxLength;
+		return this;
+	}
+
+	/**
+	 * 从JSON Schema文档编译
+	 *
+	 * @param schema
+	 * @return
+	 */
+	public static JSONSchema compile(JSONObject schema) {
+		for (String keyword : schema.keySet()) {
+			if (!KEYWORDS.contains(keyword)) {
+				throw new JSONException("不支持的schema关键字: " + keyword);
+			}
+		}
+		JSONSchema result = new JSONSchema(ANY);
+		Object type = schema.get("type");
+		if (type != null) {
+			result.types = 0;
+			if (type instanceof JSONArray) {
+				for (Object t : (JSONArray) type) {
+					result.types |= type(String.valueOf(t));
+				}
+			} else {
+				result.types = type(String.valueOf(type));
+			}
+		}
+		if (schema.containsKey("properties")) {
+			for (Entry<String, Object> entry : schema.getObject("properties").entrySet()) {
+				if (!(entry.getValue() instanceof JSONObject)) {
+					throw new JSONException("schema属性[" + entry.getKey() + "]必须是JSONObject类型");
+				}
+				result.property(entry.getKey(), compile((JSONObject) entry.getValue()));
+			}
+		}
+		if (schema.containsKey("required")) {
+			result.required(schema.getArray("required").toStringArray());
+		}
+		Object additional = schema.get("additionalProperties");
+		if (Boolean.FALSE.equals(additional)) {
+			result.rejectUnknown();
+		} else if (additional != null && !Boolean.TRUE.equals(additional)) {
+			throw new JSONException("additionalProperties只支持布尔值");
+		}
+		if (schema.containsKey("items")) {
+			result.items(compile(schema.getObject("items")));
+		}
+		if (schema.containsKey("enum")) {
+			result.enums(schema.getArray("enum").array());
+		}
+		if (schema.containsKey("minimum")) {
+			result.minimum(schema.getDouble("minimum"));
+		}
+		if (schema.containsKey("maximum")) {
+			result.maximum(schema.getDouble("maximum"));
+		}
+		if (schema.containsKey("minLength")) {
+			result.minLength(schema.getInt("minLength"));
+		}
+		if (schema.containsKey("maxLength")) {
+			result.maxLength(schema.getInt("maxLength"));
+		}
+		return result;
+	}
+
+	private static int type(String name) {
+		switch (name) {
+		case "object":
+			return OBJECT;
+		case "array":
+			return ARRAY;
+		case "string":
+			return STRING;
+		case "number":
+			return NUMBER | INTEGER;
+		case "integer":
+			return INTEGER;
+		case "boolean":
+			return BOOLEAN;
+		case "null":
+			return NULL;
+		default:
+			throw new JSONException("不支持的schema类型: " + name);
+		}
+	}
+
+	/**
+	 * 校验已经构建好的值
+	 *
+	 * @param value
+	 */
+	public void validate(Object value) {
+		validate(value, "");
+	}
+
+	private void validate(Object value, String path) {
+		if (value instanceof JSONObject) {
+			fail(path, checkContainer(OBJECT));
+			JSONObject object = (JSONObject) value;
+			for (Entry<String, Object> entry : object.entrySet()) {
+				JSONSchema property = properties.get(entry.getKey());
+				if (property == null && unknownKeys == UNKNOWN_REJECT) {
+					fail(path, "不允许的key[" + entry.getKey() + "]");
+				}
+				if (property != null) {
+					property.validate(entry.getValue(), path + "/" + entry.getKey());
+				}
+			}
+			fail(path, checkRequired(object));
+		} else if (value instanceof JSONArray) {
+			fail(path, checkContainer(ARRAY));
+			if (items != null) {
+				JSONArray array = (JSONArray) value;
+				for (int i = 0; i < array.size(); i++) {
+					items.validate(array.get(i), path + "/" + i);
+				}
+			}
+		} else {
+			fail(path, checkScalar(value));
+		}
+	}
+
+	private static void fail(String path, String message) {
+		if (message != null) {
+			throw new JSONException("[" + path + "]" + message);
+		}
+	}
+
+	/*
+	 * 以下方法供JSONTokener在解析过程中调用, 校验失败时返回失败原因, 由调用者补充位置信息, 成功返回null
+	 */
+
+	/**
+	 * 读取到'{'或'['时校验类型
+	 */
+	String checkContainer(int type) {
+		if ((types & type) == 0) {
+			return "类型不匹配, 不能是" + (type == OBJECT ? "对象" : "数组");
+		}
+		return null;
+	}
+
+	/**
+	 * 对象中key对应的schema, 未定义时返回null
+	 */
+	JSONSchema property(String key) {
+		return properties.get(key);
+	}
+
+	/**
+	 * 未定义的key是否跳过
+	 */
+	boolean skipsUnknown() {
+		return unknownKeys == UNKNOWN_SKIP;
+	}
+
+	/**
+	 * 未定义的key是否校验失败
+	 */
+	boolean rejectsUnknown() {
+		return unknownKeys == UNKNOWN_REJECT;
+	}
+
+	JSONSchema items() {
+		return items;
+	}
+
+	/**
+	 * 对象读取结束时校验必需的key
+	 */
+	String checkRequired(JSONObject object) {
+		for (int i = 0; i < required.size(); i++) {
+			if (!object.containsKey(required.get(i))) {
+				return "缺少必需的key[" + required.get(i) + "]";
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 校验不是对象或数组的值
+	 */
+	String checkScalar(Object value) {
+		if (value instanceof JSONString) { // 延迟解码的字符串按解码后的内容校验
+			value = value.toString();
+		}
+		int type;
+		if (value == null) {
+			type = NULL;
+		} else if (value instanceof String) {
+			type = STRING;
+		} else if (value instanceof Boolean) {
+			type = BOOLEAN;
+		} else if (value instanceof Integer || value instanceof Long) {
+			type = INTEGER;
+		} else if (value instanceof Number) {
+			double d = ((Number) value).doubleValue();
+			type = d == Math.rint(d) && !Double.isInfinite(d) ? NUMBER | INTEGER : NUMBER;
+		} else {
+			type = ANY;
+		}
+		if ((types & type) == 0) {
+			return "类型不匹配, 值为" + value;
+		}
+		if (enums != null && !containsEnum(value)) {
+			return "值" + value + "不在允许的范围" + enums + "中";
+		}
+		if (value instanceof Number) {
+			double d = ((Number) value).doubleValue();
+			if (d < minimum || d > maximum) {
+				return "数值" + value + "超出范围[" + minimum + ", " + maximum + "]";
+			}
+		} else if (value instanceof String) {
+			int length = ((String) value).length();
+			if (length < minLength || length > maxLength) {
+				return "字符串长度" + length + "超出范围[" + minLength + ", " + maxLength + "]";
+			}
+		}
+		return null;
+	}
+
+	private boolean containsEnum(Object value) {
+		if (enums.contains(value)) {
+			return true;
+		}
+		if (value instanceof Number) {
+			BigDecimal decimal = new BigDecimal(value.toString());
+			for (Object e : enums) {
+				if (e instanceof Number && decimal.compareTo(new BigDecimal(e.toString())) == 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.mxy.air.json;
+
+/**
+ * 一次解析或格式化的统计数据
+ * 
+ * @author mengxiangyun
+ *
+ */
+public class JSONStatistics {
+
+	/* 读取或输出的字符数量, 输入为ASCII字节时与字节数相同 */
+	private final long length;
+
+	/* 耗时, 纳秒 */
+	private final long nanos;
+
+	/* 最大嵌套层级 */
+	private final int maxDepth;
+
+	private final int objects;
+
+	private final int arrays;
+
+	private final int strings;
+
+	private final int numbers;
+
+	/* 当前线程分配的内存字节数, JVM不支持或没有启用统计时为-1 */
+	private final long allocatedBytes;
+
+	public JSONStatistics(long length, long nanos, int maxDepth, int objects, int arrays, int strings, int numbers) {
+		this(length, nanos, maxDepth, objects, arrays, strings, numbers, -1);
+	}
+
+	public JSONStatistics(long length, long nanos, int maxDepth, int objects, int arrays, int strings, int numbers,
+			long allocatedBytes) {
+		this.length = length;
+		this.nanos = nanos;
+		this.maxDepth = maxDepth;
+		this.objects = objects;
+		this.arrays = arrays;
+		this.strings = strings;
+		this.numbers = numbers;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	public long getLength() {
+		return length;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public int getObjects() {
+		return objects;
+	}
+
+	public int getArrays() {
+		return arrays;
+	}
+
+	public int getStrings() {
+		return strings;
+	}
+
+	public int getNumbers() {
+		return numbers;
+	}
+
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "JSONStatistics [length=" + length + ", nanos=" + nanos + ", maxDepth=" + maxDepth + ", objects="
+				+ objects + ", arrays=" + arrays + ", strings=" + strings + ", numbers=" + numbers + ", allocatedBytes=" + allocatedBytes + "]";
+	}
+
+}
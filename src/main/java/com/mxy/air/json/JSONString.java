@@ -0,0 +1,154 @@
+package com.mxy.air.json;
+
+/**
+ * 延迟解码的字符串, 引用json原文中引号之间的内容, 第一次调用toString()时解码并缓存. 没有转义字符时输出直接复制原文.
+ * 调用detach()之前会一直引用整个json字符串, 需要长期保存的值应该先调用detach(). 通过JSONTokener.setLazyStrings(true)启用
+ *
+ * @author mengxiangyun
+ *
+ */
+public final class JSONString implements CharSequence {
+
+	/* json原文, 调用detach()后为null */
+	private String source;
+
+	/* 引号之间的内容在原文中的位置 */
+	private final int start;
+	private final int end;
+
+	private final char quote;
+
+	/* 原文中是否有转义字符 */
+	private final boolean escaped;
+
+	/* 解码后的字符串 */
+	private String value;
+
+	JSONString(String source, int start, int end, char quote, boolean escaped) {
+		this.source = source;
+		this.start = start;
+		this.end = end;
+		this.quote = quote;
+		this.escaped = escaped;
+	}
+
+	/**
+	 * 原文中是否有转义字符
+	 *
+	 * @return
+	 */
+	public boolean isEscaped() {
+		return escaped;
+	}
+
+	/**
+	 * 是否还引用json原文
+	 *
+	 * @return
+	 */
+	public boolean isAttached() {
+		return source != null;
+	}
+
+	/**
+	 * 解码并释放对json原文的引用
+	 *
+	 * @return
+	 */
+	public JSONString detach() {
+		toString();
+		source = null;
+		return this;
+	}
+
+	@Override
+	public int length() {
+		return escaped ? toString().length() : end - start;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (escaped) {
+			return toString().charAt(index);
+		}
+		if (index < 0 || index >= end - start) {
+			throw new IndexOutOfBoundsException("index: " + index + ", length: " + (end - start));
+		}
+		String value = this.value;
+		return value != null ? value.charAt(index) : source.charAt(start + index);
+	}
+
+	@Override
+	public CharSequence subSequence(int from, int to) {
+		return toString().subSequence(from, to);
+	}
+
+	/**
+	 * 输出到out, 原文可以直接作为json字符串时复制原文, 否则解码后重新转义
+	 */
+	void write(StringBuilder out) {
+		String source = this.source;
+		if (source != null && !escaped && quote == '"' && plain(source)) {
+			out.append('"').append(source, start, end).append('"');
+		} else {
+			JSONStringer.escape(out, toString());
+		}
+	}
+
+	/**
+	 * 原文中是否没有需要转义的控制字符
+	 */
+	private boolean plain(String source) {
+		for (int i = start; i < end; i++) {
+			if (source.charAt(i) < ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 与另一个JSONString解码后的内容相同时返回true. 与String不相等, 保证equals对称;
+	 * JSONObject和JSONArray中的比较按解码后的内容进行, 所以延迟解码不影响contains(), indexOf()和equals()的结果
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		return obj instanceof JSONString && toString().equals(obj.toString());
+	}
+
+	@Override
+	public int hashCode() {
+		return toString().hashCode();
+	}
+
+	/**
+	 * 解码后的字符串, 第一次调用时解码
+	 */
+	@Override
+	public String toString() {
+		String result = value;
+		if (result == null) {
+			if (escaped) {
+				StringBuilder sb = new StringBuilder(end - start);
+				int i = start;
+				while (i < end) {
+					char c = source.charAt(i++);
+					if (c == '\\') {
+						i = JSONTokener.unescape(source, i, end, sb);
+					} else {
+						sb.append(c);
+					}
+				}
+				result = sb.toString();
+			} else {
+				result = source.substring(start, end);
+			}
+			value = result;
+		}
+		return result;
+	}
+
+}
@@ -1,11 +1,15 @@
 package com.mxy.air.json;
 
+import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+
+import com.mxy.air.json.BeanGetters.Getter;
 
 /**
  * 格式化json对象或数组到字符串, 可以指定缩进的大小
@@ -24,6 +28,20 @@ public class JSONStringer {
 	/* 对象嵌入层级 */
 	private int level = 0;
 
+	/* 直接输出JavaBean时的最大嵌套层级, 超出时认为存在循环引用 */
+	private static final int MAX_BEAN_DEPTH = 1000;
+
+	/* 统计监听器, 为null时不统计 */
+	private final JSONMetrics metrics = JSON.getMetrics();
+
+	/* 统计数据 */
+	private int maxDepth;
+	private int objects;
+	private int arrays;
+	private int strings;
+	private int numbers;
+	private long startAllocated;
+
 	public JSONStringer() {
 		this(0);
 	}
@@ -46,91 +64,396 @@ public class JSONStringer {
 	 * @return
 	 */
 	public String array(JSONArray array) {
-		out.append('[');
-		level++;
-		newLine();
+		if (metrics == null) {
+			writeArray(array);
+			return toString();
+		}
+		int start = begin();
+		long startTime = System.nanoTime();
+		try {
+			writeArray(array);
+		} catch (RuntimeException e) {
+			metrics.serializeFailed(e);
+			throw e;
+		}
+		end(start, startTime);
+		return toString();
+	}
+
+	/**
+	 * 格式化JSONObject
+	 * 
+	 * @param object
+	 * @return
+	 */
+	public String object(JSONObject object) {
+		if (metrics == null) {
+			writeObject(object);
+			return toString();
+		}
+		int start = begin();
+		long startTime = System.nanoTime();
+		try {
+			writeObject(object);
+		} catch (RuntimeException e) {
+			metrics.serializeFailed(e);
+			throw e;
+		}
+		end(start, startTime);
+		return toString();
+	}
+
+	/**
+	 * 格式化Object
+	 * 
+	 * @param value
+	 * @return
+	 */
+	public String value(Object value) {
+		if (metrics == null) {
+			writeValue(value);
+			return toString();
+		}
+		int start = begin();
+		long startTime = System.nanoTime();
+		try {
+			writeValue(value);
+		} catch (RuntimeException e) {
+			metrics.serializeFailed(e);
+			throw e;
+		}
+		end(start, startTime);
+		return toString();
+	}
 
+	/**
+	 * 格式化JavaBean, 通过缓存的getter直接输出, 不创建中间的JSONObject.
+	 * 属性的规则与JSONObject(Object)相同, 嵌套的JavaBean, Map, 集合和数组同样直接输出
+	 * 
+	 * @param bean
+	 * @return
+	 */
+	public String bean(Object bean) {
+		if (metrics == null) {
+			writeBean(bean);
+			return toString();
+		}
+		int start = begin();
+		long startTime = System.nanoTime();
+		try {
+			writeBean(bean);
+		} catch (RuntimeException e) {
+			metrics.serializeFailed(e);
+			throw e;
+		}
+		end(start, startTime);
+		return toString();
+	}
+
+	/**
+	 * 开始统计一个顶层的值, 返回开始位置
+	 */
+	private int begin() {
+		startAllocated = Allocations.current();
+		maxDepth = 0;
+		objects = 0;
+		arrays = 0;
+		strings = 0;
+		numbers = 0;
+		return out.length();
+	}
+
+	private void end(int start, long startTime) {
+		metrics.serialized(new JSONStatistics(out.length() - start, System.nanoTime() - startTime, maxDepth,
+				objects, arrays, strings, numbers, Allocations.since(startAllocated)));
+	}
+
+	private void writeArray(JSONArray array) {
+		writeElements(array.iterator(), false);
+	}
+
+	private void writeObject(JSONObject object) {
+		writeEntries(object.entrySet(), false);
+	}
+
+	/**
+	 * 输出数组
+	 * 
+	 * @param iterator
+	 * @param direct
+	 *            是否直接输出JavaBean的值
+	 */
+	private void writeElements(Iterator<?> iterator, boolean direct) {
+		open('[');
+		arrays++;
 		boolean comma = false;
-		Iterator<Object> iterator = array.iterator();
 		while (iterator.hasNext()) {
 			Object object = iterator.next();
 			if (comma) {
 				out.append(',');
 				newLine();
 			}
-			value(object);
+			if (direct) {
+				writeBeanValue(object);
+			} else {
+				writeValue(object);
+			}
 			comma = true;
 		}
-		level--;
-		newLine();
-		out.append(']');
-		return toString();
+		close(']');
 	}
 
 	/**
-	 * 格式化JSONObject
+	 * 输出对象
 	 * 
-	 * @param object
-	 * @return
+	 * @param entries
+	 * @param direct
+	 *            是否直接输出JavaBean的值
 	 */
-	public String object(JSONObject object) {
-		out.append('{');
+	private void writeEntries(Set<? extends Entry<?, ?>> entries, boolean direct) {
+		open('{');
+		objects++;
+		boolean pretty = indent.length() > 0;
+		// 按key序列查找缓存的结构, 直接输出转义后的key
+		ObjectShape shape = ObjectShape.root(pretty);
+		boolean comma = false;
+		for (Entry<?, ?> entry : entries) {
+			Object name = entry.getKey();
+			String key = name == null || name instanceof String ? (String) name : String.valueOf(name);
+			if (shape != null) {
+				shape = key == null ? null : shape.next(key);
+			}
+			if (shape != null && !pretty) {
+				strings++;
+				out.append(comma ? shape.separated : shape.key);
+			} else {
+				if (comma) {
+					out.append(',');
+					newLine();
+				}
+				if (shape != null) {
+					strings++;
+					out.append(shape.key);
+				} else {
+					string(key);
+					out.append(':');
+					// 如果指定了缩进格式, key-value之间的分隔符后面添加一个空格, 美化输出
+					if (pretty) {
+						out.append(' ');
+					}
+				}
+			}
+			if (direct) {
+				writeBeanValue(entry.getValue());
+			} else {
+				writeValue(entry.getValue());
+			}
+			comma = true;
+		}
+		close('}');
+	}
+
+	private void open(char open) {
+		out.append(open);
 		level++;
+		if (level > maxDepth) {
+			maxDepth = level;
+		}
+		newLine();
+	}
+
+	private void close(char close) {
+		level--;
 		newLine();
+		out.append(close);
+	}
 
+	/**
+	 * 通过缓存的getter输出JavaBean, 调用失败的getter与JSONObject(Object)一样被忽略, Error不忽略
+	 */
+	private void writeBean(Object bean) {
+		if (level >= MAX_BEAN_DEPTH) {
+			throw new JSONException("JavaBean嵌套层级超过" + MAX_BEAN_DEPTH + ", 可能存在循环引用");
+		}
+		open('{');
+		objects++;
+		boolean pretty = indent.length() > 0;
 		boolean comma = false;
-		for (Entry<String, Object> entry : object.entrySet()) {
-			if (comma) {
-				out.append(',');
-				newLine();
+		for (Getter getter : BeanGetters.of(bean.getClass())) {
+			// 基本类型的返回值保存在integral或real中, 不装箱
+			long integral = 0;
+			double real = 0;
+			Object value = null;
+			try {
+				switch (getter.kind) {
+				case BeanGetters.INT:
+					integral = (int) getter.handle.invokeExact(bean);
+					break;
+				case BeanGetters.LONG:
+					integral = (long) getter.handle.invokeExact(bean);
+					break;
+				case BeanGetters.SHORT:
+					integral = (short) getter.handle.invokeExact(bean);
+					break;
+				case BeanGetters.BYTE:
+					integral = (byte) getter.handle.invokeExact(bean);
+					break;
+				case BeanGetters.CHAR:
+					integral = (char) getter.handle.invokeExact(bean);
+					break;
+				case BeanGetters.BOOLEAN:
+					integral = (boolean) getter.handle.invokeExact(bean) ? 1 : 0;
+					break;
+				case BeanGetters.FLOAT:
+					real = (float) getter.handle.invokeExact(bean);
+					break;
+				case BeanGetters.DOUBLE:
+					real = (double) getter.handle.invokeExact(bean);
+					break;
+				default:
+					value = (Object) getter.handle.invokeExact(bean);
+					break;
+				}
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				continue;
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				// getter抛出的受检异常, 与JSONObject(Object)中的InvocationTargetException一样忽略
+				continue;
 			}
-			string(entry.getKey());
-			out.append(':');
-			// 如果指定了缩进格式, key-value之间的分隔符后面添加一个空格, 美化输出
-			if (indent.length() > 0) {
-				out.append(' ');
+			if (pretty) {
+				if (comma) {
+					out.append(',');
+					newLine();
+				}
+				out.append(getter.prettyKey);
+			} else {
+				out.append(comma ? getter.separated : getter.key);
 			}
-			value(entry.getValue());
+			strings++;
 			comma = true;
+			switch (getter.kind) {
+			case BeanGetters.INT:
+			case BeanGetters.LONG:
+			case BeanGetters.SHORT:
+			case BeanGetters.BYTE:
+				numbers++;
+				out.append(integral);
+				break;
+			case BeanGetters.CHAR:
+				string(String.valueOf((char) integral));
+				break;
+			case BeanGetters.BOOLEAN:
+				out.append(integral != 0);
+				break;
+			case BeanGetters.FLOAT:
+				numbers++;
+				checkFinite(real);
+				out.append((float) real);
+				break;
+			case BeanGetters.DOUBLE:
+				numbers++;
+				checkFinite(real);
+				out.append(real);
+				break;
+			default:
+				writeBeanValue(value);
+				break;
+			}
 		}
-		level--;
-		newLine();
-		out.append('}');
-		return toString();
+		close('}');
 	}
 
 	/**
-	 * 格式化Object
-	 * 
-	 * @param value
-	 * @return
+	 * 输出JavaBean中的值, 嵌套的JavaBean, Map, 集合和数组直接输出, 其他值与writeValue()相同
 	 */
-	public String value(Object value) {
+	private void writeBeanValue(Object value) {
+		if (value == null || value instanceof JSON || value instanceof Number || value instanceof Boolean
+				|| value instanceof CharSequence) {
+			writeValue(value);
+		} else if (value instanceof Map) {
+			writeEntries(((Map<?, ?>) value).entrySet(), true);
+		} else if (value instanceof Collection) {
+			writeElements(((Collection<?>) value).iterator(), true);
+		} else if (value.getClass().isArray()) {
+			writeArrayValue(value);
+		} else if (BeanGetters.isBean(value.getClass())) {
+			writeBean(value);
+		} else {
+			writeValue(value);
+		}
+	}
+
+	/**
+	 * 直接输出Java数组, int[], long[]和double[]的元素不装箱
+	 */
+	private void writeArrayValue(Object array) {
+		open('[');
+		arrays++;
+		int length = Array.getLength(array);
+		for (int i = 0; i < length; i++) {
+			if (i > 0) {
+				out.append(',');
+				newLine();
+			}
+			if (array instanceof int[]) {
+				numbers++;
+				out.append(((int[]) array)[i]);
+			} else if (array instanceof long[]) {
+				numbers++;
+				out.append(((long[]) array)[i]);
+			} else if (array instanceof double[]) {
+				numbers++;
+				checkFinite(((double[]) array)[i]);
+				out.append(((double[]) array)[i]);
+			} else {
+				writeBeanValue(Array.get(array, i));
+			}
+		}
+		close(']');
+	}
+
+	private static void checkFinite(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			throw new JSONException(value + "不是合法的json数值");
+		}
+	}
+
+	private void writeValue(Object value) {
 		if (value == null) {
 			out.append("null");
+		} else if (value instanceof JSONNumber) {
+			// 延迟解析的数值直接输出原文, 原文在解析时已校验
+			numbers++;
+			out.append(value.toString());
 		} else if (value instanceof Number) {
+			numbers++;
 			String valueStr = value.toString();
 			// 通过BigDecimal的构造器验证数值格式
 			new BigDecimal(valueStr);
 			out.append(valueStr);
 		} else if (value instanceof Boolean) {
 			out.append(value.toString());
+		} else if (value instanceof JSONString) {
+			// 延迟解码的字符串没有转义字符时直接复制原文
+			strings++;
+			((JSONString) value).write(out);
 		} else if (value instanceof Map) {
 			Map<?, ?> map = (Map<?, ?>) value;
-			object(new JSONObject(map));
+			writeObject(new JSONObject(map));
 		} else if (value instanceof Collection) {
 			Collection<?> collection = (Collection<?>) value;
-			array(new JSONArray(collection));
+			writeArray(new JSONArray(collection));
 		} else if (value.getClass().isArray()) {
-			array(new JSONArray(value));
+			writeArray(new JSONArray(value));
 		} else if (value instanceof JSONObject) {
-			object((JSONObject) value);
+			writeObject((JSONObject) value);
 		} else if (value instanceof JSONArray) {
-			array((JSONArray) value);
+			writeArray((JSONArray) value);
 		} else {
 			string(String.valueOf(value));
 		}
-		return toString();
 	}
 
 	/**
@@ -139,6 +462,17 @@ public class JSONStringer {
 	 * @param value
 	 */
 	private void string(String value) {
+		strings++;
+		escape(out, value);
+	}
+
+	/**
+	 * 将字符串转义并用引号包裹后输出到out
+	 * 
+	 * @param out
+	 * @param value
+	 */
+	static void escape(StringBuilder out, String value) {
 		out.append('"');
 		for (int i = 0; i < value.length(); i++) {
 			char c = value.charAt(i);
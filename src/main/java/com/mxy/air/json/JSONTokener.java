@@ -1,5 +1,15 @@
 package com.mxy.air.json;
 
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * 将json字符串解析为相应对象
  * 遵循标准的json语法. 除此之外, 还支持以下语法
@@ -10,6 +20,14 @@ package com.mxy.air.json;
  * 		-key-value之间的分隔符'=', '=>'
  * 		-key-value对的分隔符';'
  * 
+ * 解析对象和数组时使用显式的栈, 不会因为嵌套过深导致StackOverflowError.
+ * 通过setLimits()可以限制嵌套层级, 文档大小, 字符串长度和值的数量,
+ * 通过setSchema()可以在解析的同时校验结构.
+ * 通过setStrict(true)只接受RFC 8259定义的标准json, 跳过以上扩展语法的判断.
+ * 通过setSharedKeys(true)使key序列相同的对象共用一个key表, 每个对象只保存值.
+ * 通过setLazyNumbers(true)使数值保存原文, 第一次读取时才解析,
+ * 通过setLazyStrings(true)使字符串值引用原文, 第一次读取时才解码
+ * 
  * @author mengxiangyun
  *
  */
@@ -27,10 +45,161 @@ public class JSONTokener {
 	/* 字符串的长度 */
 	private int length;
 
+	/* 字节输入的快速扫描, 只有输入全部为ASCII字符时存在, 此时字节位置与字符位置一一对应 */
+	private final ByteScanner scanner;
+
+	/* 统计监听器, 为null时不统计 */
+	private final JSONMetrics metrics = JSON.getMetrics();
+
+	/* 当前嵌套层级 */
+	private int depth;
+
+	/* 统计数据 */
+	private int maxDepth;
+	private int objects;
+	private int arrays;
+	private int strings;
+	private int numbers;
+	private long startAllocated;
+
+	/* 解析限制 */
+	private int depthLimit = Integer.MAX_VALUE;
+	private int lengthLimit = Integer.MAX_VALUE;
+	private int stringLengthLimit = Integer.MAX_VALUE;
+	private int elementsLimit = Integer.MAX_VALUE;
+
+	/* byteOffset()上次计算到的字符位置和对应的字节偏移量 */
+	private int offsetPos;
+	private long offsetBytes;
+
+	/* 当前文档的开始位置和已读取的值的数量 */
+	private int documentStart;
+	private int elements;
+
+	/* 是否只接受标准json语法 */
+	private boolean strict;
+
+	/* 对象是否共用key表 */
+	private boolean sharedKeys;
+
+	/* 数值是否延迟解析 */
+	private boolean lazyNumbers;
+
+	/* 字符串值是否延迟解码 */
+	private boolean lazyStrings;
+
+	/* 每一层上一个共用key表的对象的key数量, 作为同一层下一个对象的初始容量 */
+	private int[] sharedCapacities;
+
+	/* 解析时校验的结构约束, 为null时不校验 */
+	private JSONSchema schema;
+
+	/* 解析对象和数组的栈, 栈中的元素为JSONObject或JSONArray, 对象中等待赋值的key, 以及对应的结构约束 */
+	private Object[] containers = new Object[16];
+	private String[] keys = new String[16];
+	private JSONSchema[] schemas = new JSONSchema[16];
+
 	public JSONTokener(String json) {
+		this(json, null);
+	}
+
+	/**
+	 * 通过UTF-8编码的字节构建JSONTokener
+	 * 如果输入全部为ASCII字符, 空白字符, 字符串和未被引号包裹的值会每次按8个字节扫描
+	 * 
+	 * @param json
+	 */
+	public JSONTokener(byte[] json) {
+		this(json, ByteScanner.isAscii(json));
+	}
+
+	private JSONTokener(byte[] json, boolean ascii) {
+		this(ascii ? new String(json, Charset.forName("ISO-8859-1")) : new String(json, Charset.forName("UTF-8")),
+				ascii ? new ByteScanner(json) : null);
+	}
+
+	private JSONTokener(String json, ByteScanner scanner) {
 		this.json = json;
 		this.pos = 0;
 		this.length = json.length();
+		this.scanner = scanner;
+	}
+
+	/**
+	 * 设置解析限制
+	 * 
+	 * @param limits
+	 * @return
+	 */
+	public JSONTokener setLimits(JSONLimits limits) {
+		this.depthLimit = limits.getMaxDepth();
+		this.lengthLimit = limits.getMaxLength();
+		this.stringLengthLimit = limits.getMaxStringLength();
+		this.elementsLimit = limits.getMaxElements();
+		return this;
+	}
+
+	/**
+	 * 设置解析时校验的结构约束, 不符合约束时抛出JSONException
+	 * 
+	 * @param schema
+	 * @return
+	 */
+	public JSONTokener setSchema(JSONSchema schema) {
+		this.schema = schema;
+		return this;
+	}
+
+	/**
+	 * 设置是否只接受RFC 8259定义的标准json. 严格模式下不支持注释, 单引号和没有引号的字符串, 以及'=', '=>', ';'分隔符,
+	 * true, false, null和数值按标准语法读取, 不允许多余的','
+	 * 
+	 * @param strict
+	 * @return
+	 */
+	public JSONTokener setStrict(boolean strict) {
+		this.strict = strict;
+		return this;
+	}
+
+	/**
+	 * 设置解析出的对象是否共用key表. key序列相同的对象(例如数组中的同类记录)共用一个不可修改的key表,
+	 * 每个对象只保存值的数组, 大幅减少内存占用. 对象增加或删除key时转换为私有的存储, 不影响其他对象
+	 * 
+	 * @param sharedKeys
+	 * @return
+	 */
+	public JSONTokener setSharedKeys(boolean sharedKeys) {
+		this.sharedKeys = sharedKeys;
+		if (sharedKeys && sharedCapacities == null) {
+			sharedCapacities = new int[containers.length];
+		}
+		return this;
+	}
+
+	/**
+	 * 设置数值是否延迟解析. 延迟解析时数值读取为保存原文的JSONNumber, 第一次读取数值时才解析,
+	 * 输出时直接输出原文, 适用于大部分数值不会被读取或只是原样输出的场景. 不符合json数值语法的值仍然立即解析
+	 * 
+	 * @param lazyNumbers
+	 * @return
+	 */
+	public JSONTokener setLazyNumbers(boolean lazyNumbers) {
+		this.lazyNumbers = lazyNumbers;
+		return this;
+	}
+
+	/**
+	 * 设置字符串值是否延迟解码. 延迟解码时字符串值读取为引用json原文的JSONString, 调用toString()时才解码,
+	 * 没有转义字符的JSONString输出时直接复制原文, 适用于只转发json的场景. key仍然立即解码.
+	 * JSONString在解码或调用detach()之前会一直引用整个json字符串
+	 * 
+	 * @param lazyStrings
+	 * @return
+	 */
+	public JSONTokener setLazyStrings(boolean lazyStrings) {
+		this.lazyStrings = lazyStrings;
+		return this;
 	}
 
 	/**
@@ -43,27 +212,34 @@ public class JSONTokener {
 	}
 
 	/**
-	 * 读取一段连续字符
+	 * 读取下一个非空字符
 	 * 
-	 * @param length
 	 * @return
 	 */
-	private String next(int length) {
-		if (pos + length > this.length) {
-			throw new JSONException("超出长度范围");
+	private char nextCleanInternal() {
+		int next = nextCleanOrEnd();
+		if (next < 0) {
+			throw new JSONException("json已读取结束");
 		}
-		String str = json.substring(pos, pos + length);
-		pos += length;
-		return str;
+		return (char) next;
 	}
 
 	/**
-	 * 读取下一个非空字符
+	 * 读取下一个非空字符, 跳过空白字符和注释, 已读取结束时返回-1
 	 * 
 	 * @return
 	 */
-	private char nextCleanInternal() {
+	private int nextCleanOrEnd() {
+		if (strict) {
+			return nextWhitespaceOrEnd();
+		}
 		while (pos < length) {
+			if (scanner != null) {
+				pos = scanner.skipWhitespace(pos, length);
+				if (pos >= length) {
+					break;
+				}
+			}
 			switch (c = read()) {
 			case ' ':
 			case '\t':
@@ -71,10 +247,13 @@ public class JSONTokener {
 			case '\r':
 				continue;
 			case '/':
-				switch (read()) {
+				switch (pos < length ? read() : 0) {
 				case '*':
 					// 跳过注释/* */
 					int commentEnd = json.indexOf("*/", pos);
+					if (commentEnd < 0) {
+						throw error("未终止的注释");
+					}
 					pos = commentEnd + 2;
 					continue;
 				case '/':
@@ -95,151 +274,154 @@ public class JSONTokener {
 				return c;
 			}
 		}
-		throw new JSONException("json已读取结束");
+		return -1;
 	}
 
 	/**
-	 * 读取下一个值. 读取后pos在value值的下一个索引位置 值可能是对象, 数组, 字符串, 或者其他类型.
+	 * 读取下一个非空字符, 只跳过空白字符, 已读取结束时返回-1
 	 * 
 	 * @return
 	 */
-	public Object nextValue() {
-		switch (c = nextCleanInternal()) {
-		case '{':
-			pos--;
-			return readObject();
-		case '[':
-			pos--;
-			return readArray();
-		case '\'':
-		case '"':
-			return nextString(c);
-		default:
-			pos--;
-			Object literal = readLiteral();
-			/**
-			 * readLiteral()方法执行后, pos在分隔符的下一个字符位置. 由于该值没有被特定字符包裹, 所以调用next*()方法时将跳过分隔符,
-			 * 导致解析不到分隔符而失败 为了避免这种情况, 这里将pos往前移动一个位置
-			 */
-			pos--;
-			return literal;
+	private int nextWhitespaceOrEnd() {
+		if (scanner != null) {
+			pos = scanner.skipWhitespace(pos, length);
+		}
+		while (pos < length) {
+			c = read();
+			if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+				return c;
+			}
 		}
+		return -1;
 	}
 
 	/**
-	 * 读取下一个字符串
+	 * 是否还有下一个值, 会跳过空白字符和注释.
+	 * 用于读取多个连续的值, 例如 {...}{...}[...]
 	 * 
-	 * @param quote
-	 *            包裹字符串的引号, 单引号或双引号
 	 * @return
 	 */
-	private String nextString(char quote) {
-		StringBuffer sb = new StringBuffer();
-		over: while (pos < length) {
-			switch (c = read()) {
-			case '\\':
-				switch (c = read()) {
-				case 'u':
-					if (pos + 4 > length) {
-						throw new JSONException("未终止的转义字符序列");
-					}
-					sb.append((char) Integer.parseInt(next(4), 16));
-
-				case 't':
-					sb.append('\t');
-					break;
-				case 'b':
-					sb.append('\b');
-					break;
-				case 'n':
-					sb.append('\n');
-					break;
-				case 'r':
-					sb.append('\r');
-					break;
-				case 'f':
-					sb.append('\f');
-					break;
-
-				case '\'':
-				case '"':
-				case '\\':
-				default:
-					sb.append(c);
-					break;
-				}
-				break;
-
-			default:
-				if (c == quote) {
-					break over;
-				}
-				sb.append(c);
-			}
+	public boolean hasMore() {
+		if (nextCleanOrEnd() < 0) {
+			return false;
 		}
-		return sb.toString();
+		pos--;
+		return true;
 	}
 
 	/**
-	 * 跳到下一行
+	 * 当前读取的字符位置
+	 * 
+	 * @return
 	 */
-	private void skipToNextLine() {
-		while ((c = read()) != '\r' && c != '\n') {
-		}
+	public int position() {
+		return pos;
 	}
 
 	/**
-	 * 读取下一个json对象, 以'{'字符开始, 以'}'字符结束.
+	 * 当前读取位置对应的UTF-8字节偏移量, 可以作为断点记录, 之后从该偏移量开始的字节重新解析
 	 * 
 	 * @return
 	 */
-	public JSONObject readObject() {
-		JSONObject object = new JSONObject();
-
-		read(); // 读取开头'{'
-
-		while (pos < length) {
-			switch (nextCleanInternal()) {
-			case '}':
-				return object;
-			case ',':
-			case ';':
-				continue;
-
-			default:
-				pos--;
+	public long byteOffset() {
+		if (scanner != null) { // ASCII输入, 字节位置与字符位置相同
+			return pos;
+		}
+		if (pos < offsetPos) {
+			offsetPos = 0;
+			offsetBytes = 0;
+		}
+		long bytes = offsetBytes;
+		for (int i = offsetPos; i < pos && i < length; i++) {
+			char ch = json.charAt(i);
+			if (ch < 0x80) {
+				bytes++;
+			} else if (ch < 0x800) {
+				bytes += 2;
+			} else if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(json.charAt(i + 1))) {
+				bytes += 4;
+				i++;
+			} else {
+				bytes += 3;
 			}
+		}
+		offsetPos = pos;
+		offsetBytes = bytes;
+		return bytes;
+	}
 
-			Object key = nextValue();
-			if (key == null)
-				throw new JSONException("key 不能为空");
-
-			String keyStr = String.valueOf(key);
+	/**
+	 * 依次读取所有的值, 每次迭代解析一个值
+	 * 
+	 * @return
+	 */
+	public Iterator<Object> iterator() {
+		return new Iterator<Object>() {
 
-			// key-value分隔符, 可以是':', '=', '=>'
-			char separator = nextCleanInternal();
-			if (separator != ':' && separator != '=') {
-				throw new JSONException("key-value 分隔符必须是':'或'='");
-			}
-			if (pos < length && json.charAt(pos) == '>') {
-				pos++;
+			@Override
+			public boolean hasNext() {
+				return hasMore();
 			}
-			object.put(keyStr, nextValue());
 
-			switch (nextCleanInternal()) {
-			case '}':
-				return object;
-			case ',':
-			case ';':
-				continue;
-
-			default:
-				throw new JSONException("未终止的对象");
+			@Override
+			public Object next() {
+				if (!hasMore()) {
+					throw new NoSuchElementException();
+				}
+				return nextValue();
 			}
+		};
+	}
+
+	/**
+	 * 依次读取所有的值的Stream, 每次读取时才解析
+	 * 
+	 * @return
+	 */
+	public Stream<Object> values() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false);
+	}
 
+	/**
+	 * 读取下一个值. 读取后pos在value值的下一个索引位置 值可能是对象, 数组, 字符串, 或者其他类型.
+	 * 
+	 * @return
+	 */
+	public Object nextValue() {
+		if (metrics == null) {
+			return document((char) 0);
 		}
-		return object;
+		int start = begin();
+		long startTime = System.nanoTime();
+		try {
+			Object value = document((char) 0);
+			end(start, startTime);
+			return value;
+		} catch (RuntimeException e) {
+			metrics.parseFailed(e, pos);
+			throw e;
+		}
+	}
 
+	/**
+	 * 读取下一个json对象, 以'{'字符开始, 以'}'字符结束.
+	 * 
+	 * @return
+	 */
+	public JSONObject readObject() {
+		if (metrics == null) {
+			return (JSONObject) document('{');
+		}
+		int start = begin();
+		long startTime = System.nanoTime();
+		try {
+			JSONObject object = (JSONObject) document('{');
+			end(start, startTime);
+			return object;
+		} catch (RuntimeException e) {
+			metrics.parseFailed(e, pos);
+			throw e;
+		}
 	}
 
 	/**
@@ -248,70 +430,1181 @@ public class JSONTokener {
 	 * @return
 	 */
 	public JSONArray readArray() {
-		JSONArray array = new JSONArray();
+		if (metrics == null) {
+			return (JSONArray) document('[');
+		}
+		int start = begin();
+		long startTime = System.nanoTime();
+		try {
+			JSONArray array = (JSONArray) document('[');
+			end(start, startTime);
+			return array;
+		} catch (RuntimeException e) {
+			metrics.parseFailed(e, pos);
+			throw e;
+		}
+	}
 
-		read(); // 读取开头'['
+	/**
+	 * 读取下一个json值并直接绑定为type类型的对象, 不创建中间的JSONObject和JSONArray.
+	 * 支持JavaBean, 基本类型及其包装类型, 字符串, 枚举, BigDecimal, BigInteger, 数组, List&lt;T&gt;, Set&lt;T&gt;, Map&lt;String, T&gt;,
+	 * 声明为Object, JSONObject或JSONArray的值按原来的方式解析. JavaBean的属性通过setter或字段赋值, 没有对应属性的key直接跳过
+	 * 
+	 * @param type
+	 * @return
+	 */
+	public <T> T readBean(Class<T> type) {
+		@SuppressWarnings("unchecked")
+		T bean = (T) readBean((Type) type);
+		return bean;
+	}
 
-		while (pos < length) {
-			switch (nextCleanInternal()) {
-			case ']':
-				return array;
-			case ',':
-			case ';':
-				continue;
+	/**
+	 * 读取下一个json值并直接绑定为type类型的对象, type可以是带有泛型参数的类型, 例如List&lt;User&gt;
+	 * 
+	 * @param type
+	 * @return
+	 */
+	public Object readBean(Type type) {
+		if (metrics == null) {
+			return bind(type);
+		}
+		int start = begin();
+		long startTime = System.nanoTime();
+		try {
+			Object bean = bind(type);
+			end(start, startTime);
+			return bean;
+		} catch (RuntimeException e) {
+			metrics.parseFailed(e, pos);
+			throw e;
+		}
+	}
 
-			default:
-				pos--;
-			}
+	private Object bind(Type type) {
+		documentStart = pos;
+		elements = 0;
+		depth = 0;
+		return BeanBinder.read(this, type, nextCleanInternal());
+	}
 
-			array.add(nextValue());
+	/**
+	 * 开始统计一个顶层的值, 返回开始位置
+	 */
+	private int begin() {
+		startAllocated = Allocations.current();
+		depth = 0;
+		maxDepth = 0;
+		objects = 0;
+		arrays = 0;
+		strings = 0;
+		numbers = 0;
+		return pos;
+	}
 
-			switch (nextCleanInternal()) {
-			case ']':
-				return array;
-			case ',':
-			case ';':
-				continue;
+	private void end(int start, long startTime) {
+		metrics.parsed(new JSONStatistics(pos - start, System.nanoTime() - startTime, maxDepth, objects, arrays,
+				strings, numbers, Allocations.since(startAllocated)));
+	}
 
-			default:
-				throw new JSONException("未终止的数组");
-			}
+	/**
+	 * 读取一个完整的值, 嵌套的值不单独统计
+	 * 
+	 * @param expected
+	 *            值必须以该字符开始, 为0时不限制
+	 * @return
+	 */
+	private Object document(char expected) {
+		documentStart = pos;
+		elements = 0;
+		depth = 0;
+		char first = nextCleanInternal();
+		if (expected != 0 && first != expected) {
+			throw error("应为'" + expected + "'");
+		}
+		if (first == '{' || first == '[') {
+			return container(first, schema);
+		}
+		int start = pos - 1;
+		Object value = scalarValue(first);
+		check(schema, value, start);
+		return value;
+	}
 
+	/**
+	 * 读取下一个不是对象或数组的值, first为值的第一个非空字符, 已被读取
+	 * 
+	 * @param first
+	 * @return
+	 */
+	private Object scalar(char first) {
+		if (strict) {
+			return strictScalar(first);
+		}
+		switch (first) {
+		case '\'':
+		case '"':
+			strings++;
+			return nextString(first);
+		default:
+			pos--;
+			Object literal = readLiteral();
+			/**
+			 * readLiteral()方法执行后, pos在分隔符的下一个字符位置. 由于该值没有被特定字符包裹, 所以调用next*()方法时将跳过分隔符,
+			 * 导致解析不到分隔符而失败 为了避免这种情况, 这里将pos往前移动一个位置
+			 */
+			pos--;
+			return literal;
 		}
-		return array;
 	}
 
 	/**
-	 * 读取下一个值, 可能是null, boolean, numeric, 未被引号包裹的字符串.
+	 * 读取作为值的不是对象或数组的值, 与scalar()的区别是字符串可以延迟解码, key仍然通过scalar()读取
 	 * 
+	 * @param first
 	 * @return
 	 */
-	private Object readLiteral() {
-		StringBuilder sb = new StringBuilder();
+	private Object scalarValue(char first) {
+		if (lazyStrings && (first == '"' || (first == '\'' && !strict))) {
+			return lazyString(first);
+		}
+		return scalar(first);
+	}
 
-		// 读取值, 值可以包含空格
-		while ((c = read()) >= ' ' && "{}[]/\\:,=;#".indexOf(c) < 0) {
-			sb.append(c);
+	/**
+	 * 按标准语法读取不是对象或数组的值, 根据第一个字符判断类型, 读取后pos在值的下一个字符位置
+	 * 
+	 * @param first
+	 * @return
+	 */
+	private Object strictScalar(char first) {
+		switch (first) {
+		case '"':
+			strings++;
+			return nextString(first);
+		case 't':
+			return keyword("true", Boolean.TRUE);
+		case 'f':
+			return keyword("false", Boolean.FALSE);
+		case 'n':
+			return keyword("null", null);
+		case '-':
+		case '0':
+		case '1':
+		case '2':
+		case '3':
+		case '4':
+		case '5':
+		case '6':
+		case '7':
+		case '8':
+		case '9':
+			numbers++;
+			return strictNumber();
+		default:
+			throw error(pos - 1, "非法字符'" + first + "'");
 		}
+	}
 
-		String literal = sb.toString().trim();
-		if (literal.length() == 0) {
-			throw new JSONException("在位置[" + (pos - 1) + "]缺失值");
+	/**
+	 * 读取true, false或null, 第一个字符已被读取
+	 */
+	private Object keyword(String keyword, Object value) {
+		if (!json.startsWith(keyword, pos - 1)) {
+			throw error(pos - 1, "应为" + keyword);
 		}
+		pos += keyword.length() - 1;
+		return value;
+	}
 
-		if (literal.equalsIgnoreCase("null")) {
-			return null;
+	/**
+	 * 按 -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)? 读取数值, 第一个字符已被读取
+	 */
+	private Object strictNumber() {
+		int start = pos - 1;
+		boolean decimal = scanNumber(start);
+		if (lazyNumbers) {
+			return new JSONNumber(json.substring(start, pos));
 		}
-		if (literal.equalsIgnoreCase("true")) {
-			return Boolean.TRUE;
+		if (decimal) {
+			return Double.valueOf(json.substring(start, pos));
 		}
-		if (literal.equalsIgnoreCase("false")) {
-			return Boolean.FALSE;
+		long value = integer(start, pos);
+		if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+			return (int) value;
 		}
+		return value;
+	}
 
-		// 数值类型
-		char initial = literal.charAt(0);
-		if ((initial >= '0' && initial <= '9') || initial == '-' || initial == '+') {
+	/**
+	 * 按标准语法扫描从start开始的数值, 扫描后pos在数值的下一个字符位置, 返回是否按小数处理
+	 */
+	private boolean scanNumber(int start) {
+		boolean negative = json.charAt(start) == '-';
+		if (negative && (start + 1 >= length || !isDigit(json.charAt(start + 1)))) {
+			throw error(start + 1, "'-'后应为数字");
+		}
+		int digitsStart = negative ? start + 1 : start;
+		pos = digitsStart;
+		while (pos < length && isDigit(json.charAt(pos))) {
+			pos++;
+		}
+		if (pos - digitsStart > 1 && json.charAt(digitsStart) == '0') {
+			throw error(digitsStart + 1, "数值不能以0开头");
+		}
+		// 与非严格模式一致, "-0"按小数处理
+		boolean decimal = negative && json.charAt(digitsStart) == '0';
+		if (pos < length && json.charAt(pos) == '.') {
+			pos++;
+			decimal = true;
+			skipDigits();
+		}
+		if (pos < length && ((c = json.charAt(pos)) == 'e' || c == 'E')) {
+			pos++;
+			decimal = true;
+			if (pos < length && ((c = json.charAt(pos)) == '+' || c == '-')) {
+				pos++;
+			}
+			skipDigits();
+		}
+		return decimal;
+	}
+
+	/**
+	 * 读取start到end之间的整数, 可以有正负号, 其余字符必须都是数字. 不足19位时直接累加, 不创建字符串
+	 */
+	private long integer(int start, int end) {
+		char sign = json.charAt(start);
+		int i = sign == '-' || sign == '+' ? start + 1 : start;
+		if (end - i > 18) {
+			try {
+				return Long.parseLong(json.substring(sign == '+' ? start + 1 : start, end));
+			} catch (NumberFormatException e) {
+				throw error(start, "数值超出范围");
+			}
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			value = value * 10 + (json.charAt(i) - '0');
+		}
+		return sign == '-' ? -value : value;
+	}
+
+	/**
+	 * 读取至少一个数字
+	 */
+	private void skipDigits() {
+		int start = pos;
+		while (pos < length && isDigit(json.charAt(pos))) {
+			pos++;
+		}
+		if (pos == start) {
+			throw error("应为数字");
+		}
+	}
+
+	private static boolean isDigit(char ch) {
+		return ch >= '0' && ch <= '9';
+	}
+
+	/**
+	 * 读取下一个字符串
+	 * 
+	 * @param quote
+	 *            包裹字符串的引号, 单引号或双引号
+	 * @return
+	 */
+	private String nextString(char quote) {
+		StringBuilder sb = new StringBuilder();
+		int start = pos;
+		while (pos < length) {
+			if (pos - start > stringLengthLimit) {
+				throw error("字符串长度超过上限" + stringLengthLimit);
+			}
+			if (scanner != null) {
+				// 整段复制引号或转义字符之前的内容
+				int end = scanner.indexOfStringEnd(pos, length, quote, strict);
+				if (end - start > stringLengthLimit) {
+					pos = start + stringLengthLimit;
+					throw error("字符串长度超过上限" + stringLengthLimit);
+				}
+				if (sb.length() == 0 && end < length && json.charAt(end) == quote) { // 没有转义字符
+					String str = json.substring(pos, end);
+					pos = end + 1;
+					return str;
+				}
+				sb.append(json, pos, end);
+				pos = end;
+				if (pos >= length) {
+					break;
+				}
+			}
+			switch (c = read()) {
+			case '\\':
+				if (strict) {
+					checkEscape();
+				}
+				pos = unescape(json, pos, length, sb);
+				break;
+
+			default:
+				if (c == quote) {
+					return sb.toString();
+				}
+				if (strict && c < ' ') {
+					throw error(pos - 1, "字符串中不能有未转义的控制字符");
+				}
+				sb.append(c);
+			}
+		}
+		if (strict) {
+			throw error("未终止的字符串");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 严格模式下校验'\\'后面的转义字符序列, 只允许\"\\/bfnrt和\\u加4位十六进制数字
+	 */
+	private void checkEscape() {
+		if (pos >= length) {
+			throw error("未终止的字符串");
+		}
+		char ch = json.charAt(pos);
+		if (ch == 'u') {
+			for (int i = pos + 1; i < pos + 5; i++) {
+				if (i >= length) {
+					throw error(i, "未终止的字符串");
+				}
+				char h = json.charAt(i);
+				if (!(h >= '0' && h <= '9') && !(h >= 'a' && h <= 'f') && !(h >= 'A' && h <= 'F')) {
+					throw error(i, "\\u后面应为4位十六进制数字");
+				}
+			}
+		} else if ("\"\\/bfnrt".indexOf(ch) < 0) {
+			throw error(pos, "非法的转义字符'\\" + ch + "'");
+		}
+	}
+
+	/**
+	 * 读取'\\'后面的转义字符序列, 转义后的字符追加到sb, 返回转义字符序列的下一个位置
+	 * 
+	 * @param json
+	 * @param pos
+	 *            '\\'的下一个位置
+	 * @param length
+	 * @param sb
+	 * @return
+	 */
+	static int unescape(String json, int pos, int length, StringBuilder sb) {
+		if (pos >= length) {
+			throw new JSONException("未终止的转义字符序列");
+		}
+		char c = json.charAt(pos++);
+		switch (c) {
+		case 'u':
+			if (pos + 4 > length) {
+				throw new JSONException("未终止的转义字符序列");
+			}
+			sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+			pos += 4;
+			break;
+		case 't':
+			sb.append('\t');
+			break;
+		case 'b':
+			sb.append('\b');
+			break;
+		case 'n':
+			sb.append('\n');
+			break;
+		case 'r':
+			sb.append('\r');
+			break;
+		case 'f':
+			sb.append('\f');
+			break;
+
+		case '\'':
+		case '"':
+		case '\\':
+		default:
+			sb.append(c);
+			break;
+		}
+		return pos;
+	}
+
+	/**
+	 * 读取字符串但不解码, 返回引用json中原文的JSONString, 开头的引号已被读取
+	 * 
+	 * @param quote
+	 * @return
+	 */
+	private JSONString lazyString(char quote) {
+		strings++;
+		int start = pos;
+		boolean escaped = false;
+		while (pos < length) {
+			if (scanner != null) {
+				pos = scanner.indexOfStringEnd(pos, length, quote, strict);
+				if (pos >= length) {
+					break;
+				}
+			}
+			if (pos - start > stringLengthLimit) {
+				throw error("字符串长度超过上限" + stringLengthLimit);
+			}
+			char ch = read();
+			if (ch == '\\') {
+				if (strict) {
+					checkEscape();
+				}
+				escaped = true;
+				pos++;
+			} else if (ch == quote) {
+				return new JSONString(json, start, pos - 1, quote, escaped);
+			} else if (strict && ch < ' ') {
+				throw error(pos - 1, "字符串中不能有未转义的控制字符");
+			}
+		}
+		if (strict) {
+			throw error("未终止的字符串");
+		}
+		// 与nextString()一致, 没有结束引号时读取到输入结束
+		pos = length;
+		if (pos - start > stringLengthLimit) {
+			throw error("字符串长度超过上限" + stringLengthLimit);
+		}
+		return new JSONString(json, start, length, quote, escaped);
+	}
+
+	/**
+	 * 跳到下一行
+	 */
+	private void skipToNextLine() {
+		while (pos < length && (c = read()) != '\r' && c != '\n') {
+		}
+	}
+
+	/**
+	 * 读取一个对象或数组, 开头的'{'或'['已被读取.
+	 * 嵌套的对象和数组压入栈中, 当前读取的总是栈顶的对象或数组, 读取结束后出栈并加入到上一层中
+	 * 
+	 * @param open
+	 * @param rootSchema
+	 * @return
+	 */
+	private Object container(char open, JSONSchema rootSchema) {
+		int top = -1;
+		top = push(top, open, rootSchema);
+		// 栈顶的对象或数组是否刚读取完一个值, 此时后面只能是分隔符或结束符
+		boolean afterValue = false;
+		// 严格模式下, 是否刚读取完分隔符',', 此时后面只能是值
+		boolean afterComma = false;
+		while (true) {
+			Object current = containers[top];
+			boolean isObject = current instanceof JSONObject;
+			char ch = nextCleanInternal();
+			if (strict) {
+				if (ch == ',') {
+					if (!afterValue) {
+						throw error(pos - 1, "多余的','");
+					}
+					afterValue = false;
+					afterComma = true;
+					continue;
+				}
+				if (afterComma && (ch == '}' || ch == ']')) {
+					throw error(pos - 1, "','后缺失值");
+				}
+				afterComma = false;
+			}
+			if (ch == (isObject ? '}' : ']')) {
+				if (isObject && schemas[top] != null) {
+					String message = schemas[top].checkRequired((JSONObject) current);
+					if (message != null) {
+						throw error(message);
+					}
+				}
+				if (sharedKeys && isObject) {
+					SharedKeyMap map = (SharedKeyMap) ((JSONObject) current).backing();
+					map.trim();
+					sharedCapacities[top] = map.size();
+				}
+				// 出栈, 加入到上一层
+				containers[top] = null;
+				schemas[top] = null;
+				depth--;
+				if (--top < 0) {
+					return current;
+				}
+				add(top, current);
+				afterValue = true;
+				continue;
+			}
+			if (!strict && (ch == ',' || ch == ';')) {
+				afterValue = false;
+				continue;
+			}
+			if (afterValue) {
+				throw error(isObject ? "未终止的对象" : "未终止的数组");
+			}
+			JSONSchema valueSchema = null;
+			boolean skip = false;
+			if (isObject) {
+				if (ch == '{' || ch == '[') {
+					throw error("key 不能是对象或数组");
+				}
+				if (strict && ch != '"') {
+					throw error(pos - 1, "key 必须是双引号包裹的字符串");
+				}
+				Object key = scalar(ch);
+				if (key == null) {
+					throw error("key 不能为空");
+				}
+				keys[top] = String.valueOf(key);
+				if (schemas[top] != null) {
+					valueSchema = schemas[top].property(keys[top]);
+					if (valueSchema == null) {
+						if (schemas[top].rejectsUnknown()) {
+							throw error("不允许的key[" + keys[top] + "]");
+						}
+						skip = schemas[top].skipsUnknown();
+					}
+				}
+
+				keySeparator();
+				ch = nextCleanInternal();
+				if (skip) {
+					keys[top] = null;
+					skipValue(ch);
+					afterValue = true;
+					continue;
+				}
+			} else if (schemas[top] != null) {
+				valueSchema = schemas[top].items();
+			}
+			if (ch == '{' || ch == '[') {
+				top = push(top, ch, valueSchema);
+				continue;
+			}
+			int start = pos - 1;
+			Object value = scalarValue(ch);
+			check(valueSchema, value, start);
+			add(top, value);
+			afterValue = true;
+		}
+	}
+
+	/**
+	 * 读取key-value分隔符, 可以是':', '=', '=>'
+	 */
+	private void keySeparator() {
+		char separator = nextCleanInternal();
+		if (strict) {
+			if (separator != ':') {
+				throw error(pos - 1, "key-value 分隔符必须是':'");
+			}
+		} else {
+			if (separator != ':' && separator != '=') {
+				throw error("key-value 分隔符必须是':'或'='");
+			}
+			if (pos < length && json.charAt(pos) == '>') {
+				pos++;
+			}
+		}
+	}
+
+	/**
+	 * 校验不是对象或数组的值
+	 */
+	private void check(JSONSchema valueSchema, Object value, int start) {
+		if (valueSchema != null) {
+			String message = valueSchema.checkScalar(value);
+			if (message != null) {
+				throw error(start, message);
+			}
+		}
+	}
+
+	/**
+	 * 新建对象或数组并压入栈中, 返回新的栈顶位置
+	 */
+	private int push(int top, char open, JSONSchema containerSchema) {
+		if (++depth > depthLimit) {
+			throw error("嵌套层级超过上限" + depthLimit);
+		}
+		if (pos - documentStart > lengthLimit) {
+			throw error("文档长度超过上限" + lengthLimit);
+		}
+		if (depth > maxDepth) {
+			maxDepth = depth;
+		}
+		if (containerSchema != null) {
+			String message = containerSchema.checkContainer(open == '{' ? JSONSchema.OBJECT : JSONSchema.ARRAY);
+			if (message != null) {
+				throw error(pos - 1, message);
+			}
+		}
+		if (++top == containers.length) {
+			containers = Arrays.copyOf(containers, top * 2);
+			keys = Arrays.copyOf(keys, top * 2);
+			schemas = Arrays.copyOf(schemas, top * 2);
+			if (sharedCapacities != null) {
+				sharedCapacities = Arrays.copyOf(sharedCapacities, top * 2);
+			}
+		}
+		schemas[top] = containerSchema;
+		if (open == '{') {
+			objects++;
+			containers[top] = sharedKeys ? JSONObject.backedBy(new SharedKeyMap(sharedCapacities[top])) : new JSONObject();
+		} else {
+			arrays++;
+			containers[top] = new JSONArray();
+		}
+		return top;
+	}
+
+	/**
+	 * 将值加入到栈中top位置的对象或数组中
+	 */
+	private void add(int top, Object value) {
+		if (++elements > elementsLimit) {
+			throw error("值的数量超过上限" + elementsLimit);
+		}
+		if (pos - documentStart > lengthLimit) {
+			throw error("文档长度超过上限" + lengthLimit);
+		}
+		Object container = containers[top];
+		if (container instanceof JSONObject) {
+			if (sharedKeys) {
+				((SharedKeyMap) ((JSONObject) container).backing()).append(keys[top], value);
+			} else {
+				((JSONObject) container).put(keys[top], value);
+			}
+			keys[top] = null;
+		} else {
+			((JSONArray) container).add(value);
+		}
+	}
+
+	/**
+	 * 跳过一个值, 不创建对应的对象, first为值的第一个非空字符, 已被读取
+	 * 
+	 * @param first
+	 */
+	private void skipValue(char first) {
+		if (strict) {
+			if (first == '{' || first == '[') {
+				skipStrictContainer(first);
+			} else if (first == '"') {
+				strings++;
+				skipString(first);
+			} else {
+				strictScalar(first);
+			}
+			return;
+		}
+		if (first == '"' || first == '\'') {
+			skipString(first);
+			return;
+		}
+		if (first != '{' && first != '[') {
+			skipLiteral();
+			return;
+		}
+		// 未结束的括号, 结束括号必须与最近的开始括号对应
+		char[] opens = new char[8];
+		int level = 0;
+		opens[level++] = first;
+		while (level > 0) {
+			char ch = nextCleanInternal();
+			switch (ch) {
+			case '{':
+			case '[':
+				if (depth + level + 1 > depthLimit) {
+					throw error("嵌套层级超过上限" + depthLimit);
+				}
+				if (level == opens.length) {
+					opens = Arrays.copyOf(opens, level * 2);
+				}
+				opens[level++] = ch;
+				break;
+			case '}':
+			case ']':
+				char open = opens[--level];
+				if ((open == '{') != (ch == '}')) {
+					throw error(pos - 1, open == '{' ? "未终止的对象" : "未终止的数组");
+				}
+				break;
+			case '"':
+			case '\'':
+				skipString(ch);
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	/**
+	 * 严格模式下跳过对象或数组, 开头的括号已被读取. 与解析时的检查相同: 结束括号与开始括号对应,
+	 * key是双引号包裹的字符串, 元素之间和key-value之间的分隔符正确, 不是对象或数组的值符合严格模式的语法
+	 */
+	private void skipStrictContainer(char first) {
+		char[] opens = new char[8];
+		int level = 0;
+		opens[level++] = first;
+		char ch = nextCleanInternal();
+		if (ch == (first == '{' ? '}' : ']')) {
+			return;
+		}
+		while (true) {
+			// ch为当前层下一个元素的第一个字符
+			if (opens[level - 1] == '{') {
+				if (ch != '"') {
+					throw error(pos - 1, "key 必须是双引号包裹的字符串");
+				}
+				skipString(ch);
+				keySeparator();
+				ch = nextCleanInternal();
+			}
+			if (ch == '{' || ch == '[') {
+				if (depth + level + 1 > depthLimit) {
+					throw error("嵌套层级超过上限" + depthLimit);
+				}
+				if (level == opens.length) {
+					opens = Arrays.copyOf(opens, level * 2);
+				}
+				opens[level++] = ch;
+				char open = ch;
+				ch = nextCleanInternal();
+				if (ch != (open == '{' ? '}' : ']')) {
+					continue;
+				}
+				level--;
+			} else if (ch == '"') {
+				strings++;
+				skipString(ch);
+			} else {
+				strictScalar(ch);
+			}
+			// 读取元素后的','或当前层的结束括号
+			while (true) {
+				char open = opens[level - 1];
+				char close = open == '{' ? '}' : ']';
+				ch = nextCleanInternal();
+				if (ch == ',') {
+					ch = nextCleanInternal();
+					if (ch == close) {
+						throw error(pos - 1, "','后缺失值");
+					}
+					break;
+				}
+				if (ch != close) {
+					throw error(pos - 1, open == '{' ? "未终止的对象" : "未终止的数组");
+				}
+				if (--level == 0) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 跳过字符串, 开头的引号已被读取
+	 */
+	private void skipString(char quote) {
+		int start = pos;
+		while (pos < length) {
+			if (pos - start > stringLengthLimit) {
+				throw error("字符串长度超过上限" + stringLengthLimit);
+			}
+			if (scanner != null) {
+				pos = scanner.indexOfStringEnd(pos, length, quote, strict);
+				if (pos >= length) {
+					break;
+				}
+			}
+			char ch = read();
+			if (ch == '\\') {
+				if (strict) {
+					checkEscape();
+				}
+				pos++;
+			} else if (ch == quote) {
+				return;
+			} else if (strict && ch < ' ') {
+				throw error(pos - 1, "字符串中不能有未转义的控制字符");
+			}
+		}
+		if (strict) {
+			throw error("未终止的字符串");
+		}
+	}
+
+	/**
+	 * 跳过未被引号包裹的值, 跳过后pos在值后面的分隔符位置
+	 */
+	private void skipLiteral() {
+		pos--;
+		boolean empty = true;
+		while (pos < length && (c = json.charAt(pos)) >= ' ' && "{}[]/\\:,=;#".indexOf(c) < 0) {
+			if (c != ' ') {
+				empty = false;
+			}
+			pos++;
+		}
+		if (empty) {
+			throw error("缺失值");
+		}
+	}
+
+	/*
+	 * 以下方法用于BeanBinder按目标类型直接读取值, first为值的第一个非空字符, 已被读取
+	 */
+
+	char nextClean() {
+		return nextCleanInternal();
+	}
+
+	/**
+	 * 读取对象或数组中下一个元素的第一个非空字符, 跳过元素之间的分隔符, 读取到结束符close时返回close
+	 * 
+	 * @param close
+	 * @param afterValue
+	 *            是否刚读取完一个元素
+	 * @return
+	 */
+	char nextElement(char close, boolean afterValue) {
+		boolean afterComma = false;
+		while (true) {
+			char ch = nextCleanInternal();
+			if (strict) {
+				if (ch == ',') {
+					if (!afterValue) {
+						throw error(pos - 1, "多余的','");
+					}
+					afterValue = false;
+					afterComma = true;
+					continue;
+				}
+				if (afterComma && ch == close) {
+					throw error(pos - 1, "','后缺失值");
+				}
+			}
+			if (ch == close) {
+				return ch;
+			}
+			if (!strict && (ch == ',' || ch == ';')) {
+				afterValue = false;
+				continue;
+			}
+			if (afterValue) {
+				throw error(close == '}' ? "未终止的对象" : "未终止的数组");
+			}
+			if (++elements > elementsLimit) {
+				throw error("值的数量超过上限" + elementsLimit);
+			}
+			if (pos - documentStart > lengthLimit) {
+				throw error("文档长度超过上限" + lengthLimit);
+			}
+			return ch;
+		}
+	}
+
+	/**
+	 * 读取对象的key和后面的key-value分隔符
+	 */
+	String nextKey(char first) {
+		if (first == '{' || first == '[') {
+			throw error("key 不能是对象或数组");
+		}
+		if (strict && first != '"') {
+			throw error(pos - 1, "key 必须是双引号包裹的字符串");
+		}
+		Object key = scalar(first);
+		if (key == null) {
+			throw error("key 不能为空");
+		}
+		keySeparator();
+		return key instanceof String ? (String) key : String.valueOf(key);
+	}
+
+	/**
+	 * 开始读取一个对象或数组
+	 */
+	void enter(char open) {
+		if (++depth > depthLimit) {
+			throw error("嵌套层级超过上限" + depthLimit);
+		}
+		if (depth > maxDepth) {
+			maxDepth = depth;
+		}
+		if (open == '{') {
+			objects++;
+		} else {
+			arrays++;
+		}
+	}
+
+	void exit() {
+		depth--;
+	}
+
+	/**
+	 * 读取任意值, 对象和数组解析为JSONObject和JSONArray
+	 */
+	Object value(char first) {
+		if (first == '{' || first == '[') {
+			return container(first, null);
+		}
+		return scalarValue(first);
+	}
+
+	void skip(char first) {
+		skipValue(first);
+	}
+
+	/**
+	 * 值为null时读取null并返回true, 否则不读取
+	 */
+	boolean nextNull(char first) {
+		int start = pos - 1;
+		if (strict) {
+			if (first == 'n' && json.startsWith("null", start)) {
+				pos = start + 4;
+				return true;
+			}
+			return false;
+		}
+		if (first != 'n' && first != 'N') {
+			return false;
+		}
+		skipLiteral();
+		if (trimEnd(start, pos) - start == 4 && json.regionMatches(true, start, "null", 0, 4)) {
+			return true;
+		}
+		pos = start + 1;
+		return false;
+	}
+
+	boolean nextBoolean(char first) {
+		int start = pos - 1;
+		if (first == '"' || first == '\'') {
+			String text = nextQuoted(first);
+			if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+				return text.length() == 4;
+			}
+			throw error(start, "应为布尔值");
+		}
+		if (strict) {
+			if (first == 't') {
+				return (Boolean) keyword("true", Boolean.TRUE);
+			}
+			if (first == 'f') {
+				return (Boolean) keyword("false", Boolean.FALSE);
+			}
+			throw error(start, "应为布尔值");
+		}
+		skipLiteral();
+		int end = trimEnd(start, pos);
+		if (end - start == 4 && json.regionMatches(true, start, "true", 0, 4)) {
+			return true;
+		}
+		if (end - start == 5 && json.regionMatches(true, start, "false", 0, 5)) {
+			return false;
+		}
+		throw error(start, "应为布尔值");
+	}
+
+	/**
+	 * 读取整数, 值为整数的小数(例如1.0, 1e3)同样可以读取, 有小数部分或超出long范围时抛出异常.
+	 * 不需要创建数值对象, 不超过18位的整数也不需要创建字符串
+	 */
+	long nextLong(char first) {
+		int start = pos - 1;
+		if (first == '"' || first == '\'') {
+			String text = nextQuoted(first).trim();
+			try {
+				return Long.parseLong(text);
+			} catch (NumberFormatException e) {
+				return toLong(parseDouble(text, start), start);
+			}
+		}
+		numbers++;
+		if (strict) {
+			if (first != '-' && !isDigit(first)) {
+				throw error(start, "应为数值");
+			}
+			return scanNumber(start) ? toLong(Double.parseDouble(json.substring(start, pos)), start) : integer(start, pos);
+		}
+		skipLiteral();
+		int end = trimEnd(start, pos);
+		if (isInteger(start, end)) {
+			return integer(start, end);
+		}
+		return toLong(parseDouble(json.substring(start, end), start), start);
+	}
+
+	/**
+	 * 小数转换为整数, 有小数部分或超出long范围时抛出异常
+	 */
+	private long toLong(double value, int start) {
+		// 2^63不能用long表示, -2^63可以
+		if (Double.isNaN(value) || value < -0x1p63 || value >= 0x1p63) {
+			throw error(start, "数值超出范围");
+		}
+		if (value != Math.rint(value)) {
+			throw error(start, "应为整数");
+		}
+		return (long) value;
+	}
+
+	double nextDouble(char first) {
+		int start = pos - 1;
+		if (first == '"' || first == '\'') {
+			return parseDouble(nextQuoted(first).trim(), start);
+		}
+		numbers++;
+		if (strict) {
+			if (first != '-' && !isDigit(first)) {
+				throw error(start, "应为数值");
+			}
+			return scanNumber(start) ? Double.parseDouble(json.substring(start, pos)) : integer(start, pos);
+		}
+		skipLiteral();
+		int end = trimEnd(start, pos);
+		if (isInteger(start, end)) {
+			return integer(start, end);
+		}
+		return parseDouble(json.substring(start, end), start);
+	}
+
+	/**
+	 * 读取值的原始文本, 字符串为去掉引号和转义后的内容, 其他值为json中的原文, 值为null时返回null
+	 */
+	String nextText(char first) {
+		int start = pos - 1;
+		if (first == '"' || first == '\'') {
+			return nextQuoted(first);
+		}
+		if (strict) {
+			return strictScalar(first) == null ? null : json.substring(start, pos);
+		}
+		skipLiteral();
+		int end = trimEnd(start, pos);
+		if (end - start > stringLengthLimit) {
+			throw error("字符串长度超过上限" + stringLengthLimit);
+		}
+		if (end - start == 4 && json.regionMatches(true, start, "null", 0, 4)) {
+			return null;
+		}
+		return json.substring(start, end);
+	}
+
+	private String nextQuoted(char quote) {
+		if (strict && quote != '"') {
+			throw error(pos - 1, "非法字符'" + quote + "'");
+		}
+		strings++;
+		return nextString(quote);
+	}
+
+	/**
+	 * 去掉值末尾的空格, 返回新的结束位置
+	 */
+	private int trimEnd(int start, int end) {
+		while (end > start && json.charAt(end - 1) == ' ') {
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 * start到end之间是否是可以有正负号的整数
+	 */
+	private boolean isInteger(int start, int end) {
+		char sign = json.charAt(start);
+		int i = sign == '-' || sign == '+' ? start + 1 : start;
+		if (i == end) {
+			return false;
+		}
+		for (; i < end; i++) {
+			if (!isDigit(json.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private double parseDouble(String text, int start) {
+		try {
+			return Double.parseDouble(text);
+		} catch (NumberFormatException e) {
+			throw error(start, "应为数值");
+		}
+	}
+
+	/**
+	 * 创建带有当前位置的异常
+	 */
+	JSONException error(String message) {
+		return error(pos, message);
+	}
+
+	JSONException error(int position, String message) {
+		return new JSONException("在位置[" + position + "]" + message);
+	}
+
+	/**
+	 * 读取下一个值, 可能是null, boolean, numeric, 未被引号包裹的字符串.
+	 * 
+	 * @return
+	 */
+	private Object readLiteral() {
+		String literal;
+		if (scanner != null) {
+			int end = scanner.indexOfLiteralEnd(pos, length);
+			literal = json.substring(pos, end).trim();
+			pos = end;
+		} else {
+			StringBuilder sb = new StringBuilder();
+
+			// 读取值, 值可以包含空格
+			while (pos < length && (c = json.charAt(pos)) >= ' ' && "{}[]/\\:,=;#".indexOf(c) < 0) {
+				sb.append(c);
+				pos++;
+			}
+			literal = sb.toString().trim();
+		}
+		// 跳过值后面的分隔符, 输入结束时同样后移一位, 与调用者的pos--对应
+		pos++;
+		if (literal.length() == 0) {
+			throw new JSONException("在位置[" + (pos - 1) + "]缺失值");
+		}
+		if (literal.length() > stringLengthLimit) {
+			throw error("字符串长度超过上限" + stringLengthLimit);
+		}
+
+		if (literal.equalsIgnoreCase("null")) {
+			return null;
+		}
+		if (literal.equalsIgnoreCase("true")) {
+			return Boolean.TRUE;
+		}
+		if (literal.equalsIgnoreCase("false")) {
+			return Boolean.FALSE;
+		}
+
+		// 数值类型
+		char initial = literal.charAt(0);
+		if ((initial >= '0' && initial <= '9') || initial == '-' || initial == '+') {
+			numbers++;
+			if (lazyNumbers && JSONNumber.isValid(literal)) {
+				return new JSONNumber(literal);
+			}
 			if (isDecimal(literal)) { // 小数
 				return Double.valueOf(literal);
 			} else {
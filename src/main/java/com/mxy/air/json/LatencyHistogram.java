@@ -0,0 +1,119 @@
+package com.mxy.air.json;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程安全的耗时直方图, 记录方式与HdrHistogram相同:
+ * 按2的幂分段, 每段再平均分为32个子区间, 记录的值的相对误差不超过1/32. 记录时不加锁, 也不分配内存
+ * 
+ * @author mengxiangyun
+ *
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BITS = 5;
+
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+
+	private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS) * SUB_COUNT);
+
+	private final LongAdder total = new LongAdder();
+
+	private final LongAdder sum = new LongAdder();
+
+	private volatile long max;
+
+	/**
+	 * 记录一个值, 负数按0记录
+	 * 
+	 * @param value
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(index(value));
+		total.increment();
+		sum.add(value);
+		if (value > max) {
+			synchronized (this) {
+				if (value > max) {
+					max = value;
+				}
+			}
+		}
+	}
+
+	public long getCount() {
+		return total.sum();
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		long count = total.sum();
+		return count == 0 ? 0 : (double) sum.sum() / count;
+	}
+
+	/**
+	 * 返回百分位对应的值, 结果为所在子区间的上界
+	 * 
+	 * @param percentile
+	 *            0 - 100
+	 * @return
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long count = total.sum();
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100) / 100));
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(highestEquivalentValue(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * 清空所有记录
+	 */
+	public synchronized void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		total.reset();
+		sum.reset();
+		max = 0;
+	}
+
+	private static int index(long value) {
+		if (value < SUB_COUNT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return (shift + 1) * SUB_COUNT + (int) ((value >>> shift) - SUB_COUNT);
+	}
+
+	private static long highestEquivalentValue(int index) {
+		if (index < SUB_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_COUNT - 1;
+		long sub = index % SUB_COUNT + SUB_COUNT;
+		return ((sub + 1) << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "LatencyHistogram [count=" + getCount() + ", mean=" + getMean() + ", p50=" + getValueAtPercentile(50)
+				+ ", p99=" + getValueAtPercentile(99) + ", max=" + getMax() + "]";
+	}
+
+}
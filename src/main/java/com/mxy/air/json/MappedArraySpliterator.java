@@ -0,0 +1,128 @@
+package com.mxy.air.json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 内存映射文件中顶层JSON数组元素的Spliterator.
+ * 创建时先对文件做一次结构扫描, 记录每个元素的开始和结束位置, 元素在读取时才解析.
+ * 按元素边界平均拆分, 适合并行解析
+ * 
+ * @author mengxiangyun
+ *
+ */
+class MappedArraySpliterator implements Spliterator<Object> {
+
+	private final MappedByteBuffer buffer;
+
+	/* 每个元素的开始和结束位置, 第i个元素为[bounds[2i], bounds[2i+1]) */
+	private final int[] bounds;
+
+	/* 当前元素的索引 */
+	private int index;
+
+	/* 结束元素的索引(不包含) */
+	private final int fence;
+
+	private MappedArraySpliterator(MappedByteBuffer buffer, int[] bounds, int index, int fence) {
+		this.buffer = buffer;
+		this.bounds = bounds;
+		this.index = index;
+		this.fence = fence;
+	}
+
+	/**
+	 * 映射文件并扫描元素边界, 文件不能超过2GB
+	 * 
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	static MappedArraySpliterator of(Path path) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new JSONException("文件过大, 不能映射: " + path);
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		ArrayElementScanner scanner = new ArrayElementScanner();
+		int[] bounds = new int[64];
+		int count = 0;
+		int limit = buffer.limit();
+		for (int i = 0; i < limit && !scanner.isDone(); i++) {
+			int event = scanner.feed((char) (buffer.get(i) & 0xFF));
+			if (event == 0) {
+				continue;
+			}
+			if ((event & ArrayElementScanner.ELEMENT_END) != 0) {
+				bounds[count++] = i;
+			}
+			if ((event & ArrayElementScanner.ELEMENT_START) != 0) {
+				if (count + 2 > bounds.length) {
+					bounds = Arrays.copyOf(bounds, bounds.length * 2);
+				}
+				bounds[count++] = i;
+			}
+		}
+		if (!scanner.isDone()) {
+			throw new JSONException("未终止的数组: " + path);
+		}
+		return new MappedArraySpliterator(buffer, bounds, 0, count / 2);
+	}
+
+	private Object parse(int i) {
+		int start = bounds[2 * i];
+		byte[] bytes = new byte[bounds[2 * i + 1] - start];
+		// 使用duplicate()以免多个线程同时修改position
+		ByteBuffer slice = buffer.duplicate();
+		slice.position(start);
+		slice.get(bytes);
+		return new JSONTokener(bytes).nextValue();
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Object> action) {
+		if (index >= fence) {
+			return false;
+		}
+		action.accept(parse(index++));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super Object> action) {
+		while (index < fence) {
+			action.accept(parse(index++));
+		}
+	}
+
+	@Override
+	public Spliterator<Object> trySplit() {
+		int mid = (index + fence) >>> 1;
+		if (mid <= index) {
+			return null;
+		}
+		Spliterator<Object> prefix = new MappedArraySpliterator(buffer, bounds, index, mid);
+		index = mid;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return fence - index;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.mxy.air.json;
+
+import java.lang.ref.SoftReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 对象结构的缓存. 对象的key序列组成一棵前缀树, 每个节点缓存对应key转义后的输出片段,
+ * 格式化时从根节点开始按key依次查找, 结构相同的对象共用同一条路径, 只需输出值.
+ * 紧凑格式和缩进格式各有一棵树, 每棵树的节点总数, 根节点以外每个节点的子节点数量和路径长度有上限,
+ * key不固定的对象(例如以id为key)超出上限后按原方式转义输出. 一棵树用满后新的输出换用新的树,
+ * 旧树只被正在输出的对象引用. 树根通过SoftReference持有, 内存不足时可以整体回收
+ * 
+ * @author mengxiangyun
+ *
+ */
+final class ObjectShape {
+
+	/* 每棵树的节点总数上限 */
+	private static final int MAX_NODES = 1 << 14;
+
+	private static final int MAX_CHILDREN = 64;
+
+	/* 路径的最大长度, 更多key的对象之后的key按原方式输出 */
+	private static final int MAX_DEPTH = 32;
+
+	/* 紧凑格式和缩进格式的根节点 */
+	private static volatile SoftReference<ObjectShape> compact = new SoftReference<>(new ObjectShape(false));
+	private static volatile SoftReference<ObjectShape> pretty = new SoftReference<>(new ObjectShape(true));
+
+	/* key的输出片段, 包括引号和key-value分隔符, 缩进格式下分隔符后有一个空格 */
+	final String key;
+
+	/* 带有前置','的key的输出片段, 用于紧凑格式 */
+	final String separated;
+
+	private final boolean indented;
+
+	/* 从根节点到当前节点的key数量 */
+	private final int depth;
+
+	/* 所在的树的节点数量 */
+	private final AtomicInteger nodes;
+
+	private final ConcurrentHashMap<String, ObjectShape> children = new ConcurrentHashMap<>();
+
+	private ObjectShape(boolean indented) {
+		this.key = null;
+		this.separated = null;
+		this.indented = indented;
+		this.depth = 0;
+		this.nodes = new AtomicInteger();
+	}
+
+	private ObjectShape(ObjectShape parent, String key) {
+		this.indented = parent.indented;
+		this.depth = parent.depth + 1;
+		this.nodes = parent.nodes;
+		StringBuilder sb = new StringBuilder(key.length() + 4);
+		JSONStringer.escape(sb, key);
+		sb.append(indented ? ": " : ":");
+		this.key = sb.toString();
+		this.separated = "," + this.key;
+	}
+
+	/**
+	 * 当前使用的树的根节点
+	 * 
+	 * @param indented
+	 *            是否是缩进格式
+	 */
+	static ObjectShape root(boolean indented) {
+		SoftReference<ObjectShape> reference = indented ? pretty : compact;
+		ObjectShape current = reference.get();
+		if (current == null || current.nodes.get() >= MAX_NODES) {
+			current = new ObjectShape(indented);
+			if (indented) {
+				pretty = new SoftReference<>(current);
+			} else {
+				compact = new SoftReference<>(current);
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * 当前结构之后为key的结构, 超出缓存上限时返回null
+	 */
+	ObjectShape next(String key) {
+		ObjectShape child = children.get(key);
+		// 根节点的子节点数量只受节点总数限制, 否则不同的第一个key用满之后整棵树都不再增长
+		if (child == null && depth < MAX_DEPTH && (depth == 0 || children.size() < MAX_CHILDREN)
+				&& nodes.get() < MAX_NODES) {
+			child = children.computeIfAbsent(key, k -> {
+				nodes.incrementAndGet();
+				return new ObjectShape(this, k);
+			});
+		}
+		return child;
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.mxy.air.json;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预读的Reader. 在单独的线程中从源Reader读取(包括解压和解码), 读取的字符按块放入有界队列,
+ * 调用者读取时只从队列中取出, 使读取和解析在不同的线程中同时进行. 队列已满时读取线程等待, 内存占用有上限
+ *
+ * @author mengxiangyun
+ *
+ */
+final class ReadAheadReader extends Reader {
+
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	/* 队列中最多缓存的块数 */
+	private static final int CHUNKS = 4;
+
+	/* 读取结束的标志 */
+	private static final char[] END = new char[0];
+
+	private final Reader source;
+
+	private final BlockingQueue<char[]> chunks = new ArrayBlockingQueue<>(CHUNKS);
+
+	private final Thread producer;
+
+	/* 读取线程的异常, 在调用者读取到结束时抛出 */
+	private volatile Throwable failure;
+
+	private volatile boolean closed;
+
+	private char[] current = new char[0];
+
+	private int pos;
+
+	private boolean finished;
+
+	ReadAheadReader(Reader source) {
+		this.source = source;
+		this.producer = new Thread(this::produce, "air-json-read-ahead");
+		producer.setDaemon(true);
+		producer.start();
+	}
+
+	private void produce() {
+		try {
+			while (!closed) {
+				char[] chunk = new char[CHUNK_SIZE];
+				int n = 0;
+				int read = 0;
+				while (n < CHUNK_SIZE && (read = source.read(chunk, n, CHUNK_SIZE - n)) >= 0) {
+					n += read;
+				}
+				if (n > 0) {
+					offer(n == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, n));
+				}
+				if (read < 0) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			// 已关闭
+		} catch (Throwable e) {
+			// 包括Error, 例如分配块时的OutOfMemoryError或解压时的InternalError
+			failure = e;
+		} finally {
+			// 无论读取线程如何结束都放入结束标志, 调用者不会一直等待
+			try {
+				offer(END);
+			} catch (InterruptedException e) {
+				// 已关闭
+			}
+		}
+	}
+
+	/**
+	 * 放入队列, 已关闭时放弃
+	 */
+	private void offer(char[] chunk) throws InterruptedException {
+		while (!closed) {
+			if (chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Reader已关闭");
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (pos == current.length) {
+			if (finished) {
+				return -1;
+			}
+			try {
+				current = chunks.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			pos = 0;
+			if (current == END) {
+				finished = true;
+				Throwable failure = this.failure;
+				if (failure instanceof IOException) {
+					throw (IOException) failure;
+				} else if (failure instanceof Error) {
+					throw (Error) failure;
+				} else if (failure != null) {
+					throw new IOException(failure);
+				}
+				return -1;
+			}
+		}
+		int n = Math.min(len, current.length - pos);
+		System.arraycopy(current, pos, cbuf, off, n);
+		pos += n;
+		return n;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		producer.interrupt();
+		chunks.clear();
+		source.close();
+	}
+
+}
@@ -0,0 +1,201 @@
+package com.mxy.air.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 从Reader中逐个读取顶层JSON数组元素的Spliterator, 不会一次读取整个数组.
+ * 拆分时读取一批元素的原始字符串交给新的Spliterator, 解析在各自的线程中进行
+ * 
+ * @author mengxiangyun
+ *
+ */
+class ReaderArraySpliterator implements Spliterator<Object> {
+
+	/* 每次拆分的元素数量的初始值和最大值 */
+	private static final int BATCH_UNIT = 256;
+	private static final int MAX_BATCH = 1 << 16;
+
+	private final Reader reader;
+
+	private final ArrayElementScanner scanner = new ArrayElementScanner();
+
+	private final char[] buffer = new char[8192];
+
+	private int position;
+
+	private int limit;
+
+	/* 当前元素的字符 */
+	private final StringBuilder element = new StringBuilder();
+
+	private int batch = BATCH_UNIT;
+
+	/* 数组读取结束或读取失败时是否关闭reader */
+	private final boolean closeAtEnd;
+
+	ReaderArraySpliterator(Reader reader) {
+		this(reader, false);
+	}
+
+	/**
+	 * @param reader
+	 * @param closeAtEnd
+	 *            数组读取结束或读取失败时是否关闭reader, 用于没有其他途径关闭reader的场景
+	 */
+	ReaderArraySpliterator(Reader reader, boolean closeAtEnd) {
+		this.reader = reader;
+		this.closeAtEnd = closeAtEnd;
+	}
+
+	/**
+	 * 读取下一个元素的原始字符串, 数组结束时返回null
+	 */
+	private String nextElement() {
+		if (!closeAtEnd) {
+			return scanElement();
+		}
+		String text;
+		try {
+			text = scanElement();
+		} catch (RuntimeException e) {
+			closeReader();
+			throw e;
+		}
+		if (text == null) {
+			closeReader();
+		}
+		return text;
+	}
+
+	private void closeReader() {
+		try {
+			reader.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private String scanElement() {
+		boolean inElement = false;
+		while (!scanner.isDone()) {
+			if (position == limit) {
+				try {
+					limit = reader.read(buffer);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				position = 0;
+				if (limit < 0) {
+					limit = 0;
+					throw new JSONException("未终止的数组");
+				}
+				continue;
+			}
+			char ch = buffer[position++];
+			int event = scanner.feed(ch);
+			if ((event & ArrayElementScanner.ELEMENT_END) != 0) {
+				String text = element.toString();
+				element.setLength(0);
+				return text;
+			}
+			if ((event & ArrayElementScanner.ELEMENT_START) != 0) {
+				inElement = true;
+			}
+			if (inElement) {
+				element.append(ch);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Object> action) {
+		String text = nextElement();
+		if (text == null) {
+			return false;
+		}
+		action.accept(new JSONTokener(text).nextValue());
+		return true;
+	}
+
+	@Override
+	public Spliterator<Object> trySplit() {
+		String[] texts = new String[batch];
+		int count = 0;
+		String text;
+		while (count < texts.length && (text = nextElement()) != null) {
+			texts[count++] = text;
+		}
+		if (count == 0) {
+			return null;
+		}
+		batch = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+		return new TextSpliterator(texts, 0, count);
+	}
+
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED;
+	}
+
+	/**
+	 * 一批元素原始字符串的Spliterator, 读取时才解析
+	 */
+	private static final class TextSpliterator implements Spliterator<Object> {
+
+		private final String[] texts;
+
+		private int index;
+
+		private final int fence;
+
+		TextSpliterator(String[] texts, int index, int fence) {
+			this.texts = texts;
+			this.index = index;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Object> action) {
+			if (index >= fence) {
+				return false;
+			}
+			String text = texts[index];
+			texts[index++] = null;
+			action.accept(new JSONTokener(text).nextValue());
+			return true;
+		}
+
+		@Override
+		public Spliterator<Object> trySplit() {
+			int mid = (index + fence) >>> 1;
+			if (mid <= index) {
+				return null;
+			}
+			Spliterator<Object> prefix = new TextSpliterator(texts, index, mid);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED;
+		}
+
+	}
+
+}
@@ -0,0 +1,180 @@
+package com.mxy.air.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * 类路径中json资源的缓存. 预加载时扫描指定的目录, 通过ClassLoader的输入流并行读取和解析,
+ * 解析后的文档冻结后按ClassLoader和资源名称保存, 之后查找只需要一次Map读取, 不再解析路径或打开jar包中的文件系统.
+ * 不同的ClassLoader中同名的资源可能不同, 每个ClassLoader有单独的缓存, ClassLoader被回收后缓存一起释放
+ *
+ * @author mengxiangyun
+ *
+ */
+final class ResourceRegistry {
+
+	/* ClassLoader对应的缓存, 缓存中资源名称不以'/'开头, 对应冻结的JSONObject或JSONArray */
+	private static final Map<ClassLoader, ConcurrentHashMap<String, Object>> caches = new WeakHashMap<>();
+
+	private ResourceRegistry() {
+	}
+
+	private static String normalize(String name) {
+		return name.startsWith("/") ? name.substring(1) : name;
+	}
+
+	/**
+	 * 返回ClassLoader对应的缓存
+	 */
+	private static ConcurrentHashMap<String, Object> documents(ClassLoader loader) {
+		synchronized (caches) {
+			return caches.computeIfAbsent(loader, l -> new ConcurrentHashMap<>());
+		}
+	}
+
+	/**
+	 * null表示启动类加载器, 通过系统类加载器查找资源
+	 */
+	private static ClassLoader loader(ClassLoader loader) {
+		return loader == null ? ClassLoader.getSystemClassLoader() : loader;
+	}
+
+	/**
+	 * 预加载类路径中指定目录下的所有.json资源, 包括子目录, 返回加载的资源数量.
+	 * 目录通过ClassLoader.getResources()查找, jar包中需要有目录条目(jar命令和Gradle打包时默认包含)
+	 */
+	static int preload(ClassLoader classLoader, String... prefixes) {
+		ClassLoader loader = loader(classLoader);
+		ConcurrentHashMap<String, Object> documents = documents(loader);
+		Set<String> names = new LinkedHashSet<>();
+		try {
+			for (String prefix : prefixes) {
+				String dir = normalize(prefix);
+				if (dir.length() > 0 && !dir.endsWith("/")) {
+					dir += "/";
+				}
+				Enumeration<URL> urls = loader.getResources(dir);
+				while (urls.hasMoreElements()) {
+					scan(urls.nextElement(), dir, names);
+				}
+			}
+		} catch (IOException | URISyntaxException e) {
+			throw new JSONException(e);
+		}
+		names.parallelStream().forEach(name -> {
+			Object document = load(loader, name);
+			if (document != null) {
+				documents.put(name, document);
+			}
+		});
+		return names.size();
+	}
+
+	/**
+	 * 列出目录url下的.json资源名称
+	 */
+	private static void scan(URL url, String dir, Set<String> names) throws IOException, URISyntaxException {
+		if ("file".equals(url.getProtocol())) {
+			Path root = Paths.get(url.toURI());
+			try (Stream<Path> stream = Files.walk(root)) {
+				stream.filter(Files::isRegularFile).forEach(file -> {
+					String relative = root.relativize(file).toString().replace(File.separatorChar, '/');
+					if (relative.endsWith(".json")) {
+						names.add(dir + relative);
+					}
+				});
+			}
+			return;
+		}
+		URLConnection connection = url.openConnection();
+		if (connection instanceof JarURLConnection) {
+			connection.setUseCaches(false);
+			try (JarFile jar = ((JarURLConnection) connection).getJarFile()) {
+				Enumeration<JarEntry> entries = jar.entries();
+				while (entries.hasMoreElements()) {
+					JarEntry entry = entries.nextElement();
+					String name = entry.getName();
+					if (!entry.isDirectory() && name.startsWith(dir) && name.endsWith(".json")) {
+						names.add(name);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 读取并解析资源, 返回冻结的文档, 资源不存在时返回null
+	 */
+	private static Object load(ClassLoader loader, String name) {
+		byte[] bytes;
+		try (InputStream in = loader.getResourceAsStream(name)) {
+			if (in == null) {
+				return null;
+			}
+			bytes = readAll(in);
+		} catch (IOException e) {
+			throw new JSONException("读取资源[" + name + "]失败", e);
+		}
+		Object document;
+		try {
+			document = new JSONTokener(bytes).nextValue();
+		} catch (RuntimeException e) {
+			throw new JSONException("解析资源[" + name + "]失败: " + e.getMessage(), e);
+		}
+		if (document instanceof JSONObject) {
+			((JSONObject) document).freeze();
+		} else if (document instanceof JSONArray) {
+			((JSONArray) document).freeze();
+		}
+		return document;
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 1024));
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) != -1) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * 返回资源对应的冻结文档, 没有预加载的资源在第一次读取时加载, 资源不存在时返回null
+	 */
+	static Object get(ClassLoader classLoader, String name) {
+		ClassLoader loader = loader(classLoader);
+		ConcurrentHashMap<String, Object> documents = documents(loader);
+		String key = normalize(name);
+		Object document = documents.get(key);
+		if (document == null) {
+			document = load(loader, key);
+			if (document != null) {
+				Object previous = documents.putIfAbsent(key, document);
+				if (previous != null) {
+					document = previous;
+				}
+			}
+		}
+		return document;
+	}
+
+}
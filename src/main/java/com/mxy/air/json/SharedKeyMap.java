@@ -0,0 +1,376 @@
+package com.mxy.air.json;
+
+import java.lang.ref.SoftReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * 共用key表的Map. key的顺序和索引保存在不可修改的Layout中, 相同key序列的对象共用同一个Layout,
+ * 每个对象只保存值的数组. 修改已有key的值时直接写入数组, 增加或删除key时转换为私有的LinkedHashMap
+ *
+ * @author mengxiangyun
+ *
+ */
+final class SharedKeyMap extends AbstractMap<String, Object> {
+
+	/* key的布局, 转换为私有Map后不再使用 */
+	private Layout layout;
+
+	private Object[] values;
+
+	/* 增加或删除key后使用的私有Map, 为null时使用共用的布局 */
+	private Map<String, Object> detached;
+
+	/**
+	 * @param capacity
+	 *            预计的key的数量
+	 */
+	SharedKeyMap(int capacity) {
+		this.layout = Layout.root();
+		this.values = new Object[capacity];
+	}
+
+	/**
+	 * 按顺序追加key, 用于解析时构建对象. key已存在时覆盖原来的值
+	 */
+	void append(String key, Object value) {
+		if (detached != null) {
+			detached.put(key, value);
+			return;
+		}
+		int index = layout.indexOf(key);
+		if (index >= 0) {
+			values[index] = value;
+			return;
+		}
+		Layout next = layout.next(key);
+		if (next == null) { // 超出布局缓存的上限
+			detach().put(key, value);
+			return;
+		}
+		if (layout.size == values.length) {
+			values = Arrays.copyOf(values, Math.max(4, values.length * 2));
+		}
+		values[layout.size] = value;
+		layout = next;
+	}
+
+	/**
+	 * 解析结束后去掉值数组中未使用的空间
+	 */
+	void trim() {
+		if (detached == null && values.length != layout.size) {
+			values = Arrays.copyOf(values, layout.size);
+		}
+	}
+
+	/**
+	 * 复制为共用同一个布局的Map, 值通过copier复制. 已转换为私有Map时返回null
+	 */
+	SharedKeyMap copy(UnaryOperator<Object> copier) {
+		if (detached != null) {
+			return null;
+		}
+		SharedKeyMap map = new SharedKeyMap(0);
+		map.layout = layout;
+		map.values = new Object[layout.size];
+		for (int i = 0; i < layout.size; i++) {
+			map.values[i] = copier.apply(values[i]);
+		}
+		return map;
+	}
+
+	/**
+	 * 转换为私有的Map
+	 */
+	private Map<String, Object> detach() {
+		if (detached == null) {
+			Map<String, Object> map = new LinkedHashMap<>();
+			for (int i = 0; i < layout.size; i++) {
+				map.put(layout.key(i), values[i]);
+			}
+			detached = map;
+		}
+		return detached;
+	}
+
+	@Override
+	public int size() {
+		return detached != null ? detached.size() : layout.size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return detached != null ? detached.containsKey(key) : layout.indexOf(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (detached != null) {
+			return detached.get(key);
+		}
+		int index = layout.indexOf(key);
+		return index < 0 ? null : values[index];
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		if (detached == null) {
+			int index = layout.indexOf(key);
+			if (index >= 0) {
+				Object old = values[index];
+				values[index] = value;
+				return old;
+			}
+		}
+		return detach().put(key, value);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (detached == null && layout.indexOf(key) < 0) {
+			return null;
+		}
+		return detach().remove(key);
+	}
+
+	@Override
+	public void clear() {
+		if (detached != null) {
+			detached.clear();
+		} else {
+			detached = new LinkedHashMap<>();
+		}
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		if (detached != null) {
+			return detached.entrySet();
+		}
+		return new AbstractSet<Entry<String, Object>>() {
+
+			@Override
+			public int size() {
+				return SharedKeyMap.this.size();
+			}
+
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				if (detached != null) {
+					return detached.entrySet().iterator();
+				}
+				return new EntryIterator(layout, values);
+			}
+		};
+	}
+
+	/**
+	 * 按布局的顺序遍历, 遍历过程中删除key时转换为私有Map, 之后的修改作用于私有Map
+	 */
+	private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+		private final Layout layout;
+
+		private final Object[] values;
+
+		private int next;
+
+		private int last = -1;
+
+		EntryIterator(Layout layout, Object[] values) {
+			this.layout = layout;
+			this.values = values;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < layout.size;
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (next >= layout.size) {
+				throw new NoSuchElementException();
+			}
+			last = next++;
+			return new SharedEntry(layout.key(last), values[last]);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			detach().remove(layout.key(last));
+			last = -1;
+		}
+	}
+
+	private final class SharedEntry extends SimpleEntry<String, Object> {
+
+		private static final long serialVersionUID = 1L;
+
+		SharedEntry(String key, Object value) {
+			super(key, value);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+
+	/**
+	 * 不可修改的key布局, 所有布局组成一棵前缀树, 从根节点开始按key序列查找.
+	 * 同一条链上的布局共用一个key数组和索引, 每个布局只记录自己的长度; 从链中间分叉时才复制前缀, 而链的长度有上限,
+	 * 所以内存和key数量成线性关系. 每棵树的布局总数和每个布局的子节点数量有上限, 一棵树用满后新的解析换用新的树,
+	 * 旧树只被仍在使用的对象引用. 树根通过SoftReference持有, 内存不足时可以整体回收. 超出上限的对象使用私有Map
+	 */
+	static final class Layout {
+
+		/* 每棵树的布局总数上限 */
+		private static final int MAX_LAYOUTS = 1 << 14;
+
+		private static final int MAX_CHILDREN = 64;
+
+		/* 共用布局的最大key数量, 更多key的对象使用私有Map */
+		private static final int MAX_KEYS = 32;
+
+		/* key数量超过该值时使用索引查找 */
+		private static final int LINEAR_SEARCH = 8;
+
+		private static volatile SoftReference<Layout> root = new SoftReference<>(new Layout(new Chain(), 0, new AtomicInteger()));
+
+		/* 所在的链, 前size个key属于当前布局 */
+		private final Chain chain;
+
+		final int size;
+
+		/* 所在的树的布局数量 */
+		private final AtomicInteger layouts;
+
+		private final ConcurrentHashMap<String, Layout> children = new ConcurrentHashMap<>();
+
+		private Layout(Chain chain, int size, AtomicInteger layouts) {
+			this.chain = chain;
+			this.size = size;
+			this.layouts = layouts;
+		}
+
+		/**
+		 * 当前使用的树的根节点
+		 */
+		static Layout root() {
+			Layout current = root.get();
+			if (current == null || current.layouts.get() >= MAX_LAYOUTS) {
+				current = new Layout(new Chain(), 0, new AtomicInteger());
+				root = new SoftReference<>(current);
+			}
+			return current;
+		}
+
+		String key(int index) {
+			return chain.keys[index];
+		}
+
+		int indexOf(Object key) {
+			Map<String, Integer> index = chain.index;
+			if (index != null) {
+				Integer i = index.get(key);
+				return i == null || i >= size ? -1 : i;
+			}
+			String[] keys = chain.keys;
+			for (int i = 0; i < size; i++) {
+				if (keys[i].equals(key)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * 在当前布局后追加key的布局, 超出上限时返回null
+		 */
+		Layout next(String key) {
+			Layout child = children.get(key);
+			if (child == null && size < MAX_KEYS && children.size() < MAX_CHILDREN && layouts.get() < MAX_LAYOUTS) {
+				child = children.computeIfAbsent(key, k -> {
+					layouts.incrementAndGet();
+					return new Layout(chain.extend(size, k), size + 1, layouts);
+				});
+			}
+			return child;
+		}
+	}
+
+	/**
+	 * 一条链上的布局共用的key数组和索引, 只在末尾追加
+	 */
+	private static final class Chain {
+
+		volatile String[] keys;
+
+		/* key对应的位置, key较少时为null, 按顺序查找 */
+		volatile Map<String, Integer> index;
+
+		/* 已使用的key数量 */
+		private int length;
+
+		Chain() {
+			this.keys = new String[4];
+		}
+
+		private Chain(String[] keys, int length) {
+			this.keys = keys;
+			this.length = length;
+			if (length > Layout.LINEAR_SEARCH) {
+				Map<String, Integer> map = new ConcurrentHashMap<>();
+				for (int i = 0; i < length; i++) {
+					map.put(keys[i], i);
+				}
+				index = map;
+			}
+		}
+
+		/**
+		 * 在前size个key后追加key. size是链的末尾时直接追加到当前链, 否则从中间分叉, 复制前缀为新链
+		 */
+		synchronized Chain extend(int size, String key) {
+			if (size != length) {
+				String[] copy = Arrays.copyOf(keys, size + 1);
+				copy[size] = key;
+				return new Chain(copy, size + 1);
+			}
+			String[] current = keys;
+			if (length == current.length) {
+				current = Arrays.copyOf(current, length * 2);
+			}
+			current[length] = key;
+			keys = current;
+			Map<String, Integer> map = index;
+			if (map != null) {
+				map.put(key, length);
+			} else if (length + 1 > Layout.LINEAR_SEARCH) {
+				map = new ConcurrentHashMap<>();
+				for (int i = 0; i <= length; i++) {
+					map.put(current[i], i);
+				}
+				index = map;
+			}
+			length++;
+			return this;
+		}
+	}
+
+}
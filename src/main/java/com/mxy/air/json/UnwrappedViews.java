@@ -0,0 +1,113 @@
+package com.mxy.air.json;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * JSONObject和JSONArray的只读视图, 不复制数据.
+ * 读取时才将嵌套的JSONObject和JSONArray转换为对应的视图, 视图随原对象的修改而变化
+ * 
+ * @author mengxiangyun
+ *
+ */
+class UnwrappedViews {
+
+	private UnwrappedViews() {
+	}
+
+	static Object unwrap(Object value) {
+		if (value instanceof JSONObject) {
+			return new MapView(((JSONObject) value).map());
+		} else if (value instanceof JSONArray) {
+			return new ListView(((JSONArray) value).list());
+		}
+		return value;
+	}
+
+	static final class MapView extends AbstractMap<String, Object> {
+
+		private final Map<String, Object> map;
+
+		MapView(Map<String, Object> map) {
+			this.map = map;
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return map.containsKey(key);
+		}
+
+		@Override
+		public Object get(Object key) {
+			return unwrap(map.get(key));
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<Entry<String, Object>>() {
+
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					Iterator<Entry<String, Object>> iterator = map.entrySet().iterator();
+					return new Iterator<Entry<String, Object>>() {
+
+						@Override
+						public boolean hasNext() {
+							return iterator.hasNext();
+						}
+
+						@Override
+						public Entry<String, Object> next() {
+							Entry<String, Object> entry = iterator.next();
+							return new SimpleImmutableEntry<>(entry.getKey(), unwrap(entry.getValue()));
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return map.size();
+				}
+			};
+		}
+
+		@Override
+		public Set<String> keySet() {
+			return Collections.unmodifiableSet(map.keySet());
+		}
+
+	}
+
+	static final class ListView extends AbstractList<Object> implements RandomAccess {
+
+		private final List<Object> list;
+
+		ListView(List<Object> list) {
+			this.list = list;
+		}
+
+		@Override
+		public Object get(int index) {
+			return unwrap(list.get(index));
+		}
+
+		@Override
+		public int size() {
+			return list.size();
+		}
+
+	}
+
+}
@@ -0,0 +1,176 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * 各解析和输出路径的内存分配量不能超过allocation-budgets.properties中的预算.
+ * 预算按每个单位(文档中的一个元素, 或者一次操作)计算, 取各个JDK版本实测最大值的倍数, 只用于发现成倍增长的分配,
+ * 精确的分配量通过JMH的 -prof gc 测量. 优化降低了分配量时应同步调低预算, 有意增加分配量时需要说明原因后调高预算
+ *
+ * @author mengxiangyun
+ *
+ */
+public class AllocationBudgetTest {
+
+	/* 预热次数, 让JIT编译和逃逸分析稳定下来 */
+	private static final int WARMUP = 2000;
+
+	/* 取多次测量的最小值, 排除偶发的分配 */
+	private static final int RUNS = 20;
+
+	private static com.sun.management.ThreadMXBean threads;
+
+	private static Properties budgets;
+
+	/* 测试文档中items的元素数量 */
+	private static final int ITEMS = 100;
+
+	private static String document;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+		budgets = new Properties();
+		try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+			assertNotNull(in);
+			budgets.load(in);
+		}
+		document = document(ITEMS);
+	}
+
+	/**
+	 * 固定的测试文档: 包含字符串, 整数, 小数, 布尔值, 嵌套对象和数组
+	 */
+	static String document(int size) {
+		StringBuilder sb = new StringBuilder("{\"name\":\"budget\",\"version\":3,\"items\":[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"id\":").append(i).append(",\"name\":\"item \\\"").append(i).append("\\\"\",\"price\":")
+					.append(i).append(".25,\"active\":").append(i % 2 == 0).append(",\"tags\":[\"a\",\"b\",")
+					.append(i).append("],\"owner\":{\"id\":").append(i * 7).append(",\"name\":\"owner\"}}");
+		}
+		return sb.append("]}").toString();
+	}
+
+	@Test
+	public void parseObject() {
+		check("parse.object", ITEMS, () -> () -> new JSONTokener(document).nextValue());
+	}
+
+	@Test
+	public void printObject() {
+		JSONObject object = new JSONObject(document);
+		check("print.object", ITEMS, () -> () -> new JSONStringer().object(object));
+	}
+
+	@Test
+	public void printPretty() {
+		JSONObject object = new JSONObject(document);
+		check("print.pretty", ITEMS, () -> () -> new JSONStringer(2).object(object));
+	}
+
+	@Test
+	public void toBean() {
+		JSONObject object = new JSONObject("{\"id\":7,\"name\":\"bean\",\"price\":1.5,\"active\":true}");
+		check("to.bean", 1, () -> () -> object.toBean(Item.class));
+	}
+
+	@Test
+	public void deepMerge() {
+		JSONObject base = new JSONObject(document);
+		JSONObject patch = new JSONObject(
+				"{\"name\":\"merged\",\"owner\":{\"name\":\"other\",\"tags\":[\"x\",\"y\"]},\"items\":[1,2,3]}");
+		// 每次合并到新的副本上, 复制不计入分配量
+		check("deep.merge", 1, () -> {
+			JSONObject target = base.deepCopy();
+			return () -> target.deepMerge(patch);
+		});
+	}
+
+	/**
+	 * 检查每个单位的平均分配量
+	 * 
+	 * @param name
+	 * @param units
+	 *            一次操作包含的单位数量
+	 * @param actions
+	 */
+	private static void check(String name, int units, Supplier<Runnable> actions) {
+		long allocated = allocated(actions) / units;
+		String budget = budgets.getProperty(name);
+		assertNotNull("没有" + name + "的预算", budget);
+		assertTrue(name + " 每个单位分配了 " + allocated + " 字节, 超出预算 " + budget, allocated <= Long.parseLong(budget));
+	}
+
+	private static long allocated(Supplier<Runnable> actions) {
+		long thread = Thread.currentThread().getId();
+		for (int i = 0; i < WARMUP; i++) {
+			actions.get().run();
+		}
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < RUNS; i++) {
+			Runnable action = actions.get();
+			long start = threads.getThreadAllocatedBytes(thread);
+			action.run();
+			min = Math.min(min, threads.getThreadAllocatedBytes(thread) - start);
+		}
+		return min;
+	}
+
+	public static class Item {
+
+		private int id;
+		private String name;
+		private double price;
+		private boolean active;
+
+		public int getId() {
+			return id;
+		}
+
+		public void setId(int id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public double getPrice() {
+			return price;
+		}
+
+		public void setPrice(double price) {
+			this.price = price;
+		}
+
+		public boolean isActive() {
+			return active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+
+}
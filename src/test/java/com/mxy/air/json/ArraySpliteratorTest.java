@@ -0,0 +1,89 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class ArraySpliteratorTest {
+
+	/* 记录是否已关闭的Reader */
+	private static final class TrackedReader extends StringReader {
+
+		boolean closed;
+
+		TrackedReader(String text) {
+			super(text);
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			super.close();
+		}
+	}
+
+	private static List<Object> drain(Spliterator<Object> spliterator) {
+		List<Object> values = new ArrayList<>();
+		spliterator.forEachRemaining(values::add);
+		return values;
+	}
+
+	@Test
+	public void readerIsClosedAtTheEndOfTheArray() {
+		TrackedReader reader = new TrackedReader("[1,{\"a\":2},[3]]");
+		Spliterator<Object> spliterator = new ReaderArraySpliterator(reader, true);
+		assertTrue(spliterator.tryAdvance(value -> assertEquals(1, value)));
+		assertFalse(reader.closed);
+		assertEquals(2, drain(spliterator).size());
+		assertTrue(reader.closed);
+	}
+
+	@Test
+	public void readerIsClosedWhenReadingFails() {
+		TrackedReader reader = new TrackedReader("[1,2");
+		try {
+			drain(new ReaderArraySpliterator(reader, true));
+			fail();
+		} catch (JSONException e) {
+			assertTrue(reader.closed);
+		}
+	}
+
+	@Test
+	public void readerIsLeftOpenByDefault() {
+		TrackedReader reader = new TrackedReader("[1]");
+		assertEquals(1, drain(new ReaderArraySpliterator(reader)).size());
+		assertFalse(reader.closed);
+	}
+
+	@Test
+	public void compressedFilesAreDecompressed() throws IOException {
+		JSONArray array = new JSONArray("[1,{\"a\":[2,3]},\"s\",true]");
+		for (String name : new String[] { "array.json", "array.json.gz", "array.jlz" }) {
+			Path path = Files.createTempFile("spliterator", name);
+			try {
+				JSON.write(path, array);
+				assertEquals(name, array.list(), drain(JSON.arraySpliterator(path)));
+				try (Stream<Object> stream = JSON.streamArray(path, false)) {
+					assertEquals(name, array.list(), stream.collect(Collectors.toList()));
+				}
+			} finally {
+				Files.delete(path);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncFileReaderTest {
+
+	private ExecutorService executor;
+
+	private AsyncFileReader reader;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(2, r -> new Thread(r, "async-reader-test"));
+		reader = new AsyncFileReader();
+		reader.setExecutor(executor);
+		reader.setMaxConcurrentReads(1);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void opensFileOnExecutor() throws Exception {
+		Queue<Runnable> tasks = new ArrayDeque<>();
+		reader.setExecutor(tasks::add);
+		Path missing = Paths.get("no-such-file-" + System.nanoTime() + ".json");
+		CompletableFuture<String> future = reader.read(missing, json -> json);
+		// 调用线程没有打开文件
+		assertFalse(future.isDone());
+		assertEquals(1, tasks.size());
+		tasks.poll().run();
+		assertTrue(future.isCompletedExceptionally());
+	}
+
+	@Test
+	public void parsesOnExecutor() throws Exception {
+		Path file = Files.createTempFile("air-json", ".json");
+		try {
+			Files.write(file, "{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+			String[] thread = new String[1];
+			CompletableFuture<JSONObject> future = reader.read(file, json -> {
+				thread[0] = Thread.currentThread().getName();
+				return new JSONObject(json);
+			});
+			assertEquals(1, future.get(10, TimeUnit.SECONDS).getInt("a"));
+			assertEquals("async-reader-test", thread[0]);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void missingFileFailsAndReleasesSlot() throws Exception {
+		Path missing = Paths.get("no-such-file-" + System.nanoTime() + ".json");
+		for (int i = 0; i < 3; i++) { // 并发上限为1, 失败的读取没有释放时后面的读取会一直排队
+			try {
+				reader.read(missing, json -> json).get(10, TimeUnit.SECONDS);
+				fail();
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof NoSuchFileException);
+			}
+		}
+	}
+
+	@Test
+	public void parserErrorCompletesExceptionally() throws Exception {
+		Path file = Files.createTempFile("air-json", ".json");
+		try {
+			Files.write(file, "{".getBytes(StandardCharsets.UTF_8));
+			try {
+				reader.read(file, JSONObject::new).get(10, TimeUnit.SECONDS);
+				fail();
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof JSONException);
+			}
+			assertEquals("{", reader.read(file, json -> json).get(10, TimeUnit.SECONDS));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+}
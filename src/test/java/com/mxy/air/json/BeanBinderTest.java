@@ -0,0 +1,227 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class BeanBinderTest {
+
+	public enum Kind {
+		ADMIN, GUEST
+	}
+
+	public static class Address {
+
+		private String city;
+
+		private int zip;
+	}
+
+	public static class User {
+
+		private long id;
+
+		private String name;
+
+		private Kind kind;
+
+		private Address address;
+
+		private List<Address> history;
+
+		private Map<String, Address> places;
+
+		private Set<String> tags;
+
+		private int[] codes;
+
+		private Integer boxed = 7;
+
+		private Object raw;
+	}
+
+	public static class Primitives {
+
+		private boolean z;
+
+		private int i = 5;
+
+		private long l;
+
+		private short s;
+
+		private byte b;
+
+		private char c;
+
+		private float f;
+
+		private double d;
+
+		private BigDecimal decimal;
+	}
+
+	public static class Overloads {
+
+		private int count;
+
+		/* 通过setter赋值时加倍, 用于确认setter优先于字段 */
+		private int doubled;
+
+		public void setCount(String count) {
+			this.count = -1;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public void setDoubled(int doubled) {
+			this.doubled = doubled * 2;
+		}
+	}
+
+	public static class Failing {
+
+		public void setFatal(String value) {
+			throw new OutOfMemoryError("setter");
+		}
+
+		public void setBroken(String value) {
+			throw new IllegalStateException("setter");
+		}
+
+		public void setFatalNumber(int value) {
+			throw new OutOfMemoryError("primitive setter");
+		}
+	}
+
+	private static <T> T bind(String json, Class<T> type) {
+		return new JSONTokener(json).readBean(type);
+	}
+
+	@Test
+	public void nestedBeansAndCollections() {
+		User user = bind("{\"id\":12345678901,\"name\":\"张三\",\"kind\":\"admin\",\"address\":{\"city\":\"bj\",\"zip\":100000},"
+				+ "\"history\":[{\"city\":\"sh\"},null],\"places\":{\"home\":{\"city\":\"gz\",\"zip\":510000}},"
+				+ "\"tags\":[\"a\",\"b\",\"a\"],\"codes\":[1,2,null],\"raw\":{\"x\":[1]}}", User.class);
+		assertEquals(12345678901L, user.id);
+		assertEquals("张三", user.name);
+		assertEquals(Kind.ADMIN, user.kind);
+		assertEquals("bj", user.address.city);
+		assertEquals(100000, user.address.zip);
+		assertEquals(2, user.history.size());
+		assertEquals("sh", user.history.get(0).city);
+		assertNull(user.history.get(1));
+		assertEquals(510000, user.places.get("home").zip);
+		assertEquals(2, user.tags.size());
+		assertArrayEquals(new int[] { 1, 2, 0 }, user.codes);
+		assertEquals(new JSONObject("{\"x\":[1]}"), user.raw);
+	}
+
+	@Test
+	public void genericTopLevelTypes() throws Exception {
+		Type type = BeanBinderTest.class.getDeclaredField("addresses").getGenericType();
+		@SuppressWarnings("unchecked")
+		List<Address> list = (List<Address>) new JSONTokener("[{\"city\":\"a\"},{\"city\":\"b\"}]").readBean(type);
+		assertEquals("b", list.get(1).city);
+	}
+
+	List<Address> addresses;
+
+	@Test
+	public void primitivesAndNulls() {
+		Primitives p = bind("{\"z\":true,\"i\":null,\"l\":-9223372036854775808,\"s\":-32768,\"b\":127,\"c\":\"x\","
+				+ "\"f\":1.5,\"d\":\"2.25\",\"decimal\":0.1}", Primitives.class);
+		assertTrue(p.z);
+		assertEquals(5, p.i); // null保留默认值
+		assertEquals(Long.MIN_VALUE, p.l);
+		assertEquals(Short.MIN_VALUE, p.s);
+		assertEquals(127, p.b);
+		assertEquals('x', p.c);
+		assertEquals(1.5f, p.f, 0);
+		assertEquals(2.25, p.d, 0);
+		assertEquals(new BigDecimal("0.1"), p.decimal);
+
+		User user = bind("{\"boxed\":null,\"name\":null}", User.class);
+		assertNull(user.boxed);
+		assertNull(user.name);
+		assertEquals(3, bind("{\"i\":3.0}", Primitives.class).i);
+		assertEquals(1000, bind("{\"l\":1e3}", Primitives.class).l);
+	}
+
+	@Test
+	public void outOfRangeNumbersFail() {
+		String[] invalid = { "{\"s\":70000}", "{\"s\":-32769}", "{\"b\":300}", "{\"b\":-129}", "{\"i\":2147483648}",
+				"{\"l\":1e30}", "{\"l\":9223372036854775808}", "{\"l\":-1e19}", "{\"l\":1.5}", "{\"i\":\"2.5\"}" };
+		for (String json : invalid) {
+			try {
+				bind(json, Primitives.class);
+				fail(json);
+			} catch (JSONException e) {
+				// expected
+			}
+			try {
+				new JSONTokener(json).setStrict(true).readBean(Primitives.class);
+				fail(json);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void unknownKeysAreSkipped() {
+		User user = bind("{\"unknown\":{\"a\":[1,{\"b\":\"}\"}]},\"name\":\"n\",\"other\":[[]],\"more\":\"x\"}", User.class);
+		assertEquals("n", user.name);
+	}
+
+	@Test
+	public void setterIsPreferredAndOverloadMatchesField() {
+		Overloads o = bind("{\"count\":3,\"doubled\":4}", Overloads.class);
+		assertEquals(3, o.count);
+		assertEquals(8, o.doubled);
+	}
+
+	@Test
+	public void typeMismatchFails() {
+		for (String json : new String[] { "{\"address\":[1]}", "{\"history\":{}}", "{\"kind\":\"none\"}", "{\"id\":{}}" }) {
+			try {
+				bind(json, User.class);
+				fail(json);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void setterExceptionsAreWrappedButErrorsAreNot() {
+		try {
+			bind("{\"broken\":\"x\"}", Failing.class);
+			fail();
+		} catch (JSONException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		for (String json : new String[] { "{\"fatal\":\"x\"}", "{\"fatalNumber\":1}" }) {
+			try {
+				bind(json, Failing.class);
+				fail(json);
+			} catch (OutOfMemoryError e) {
+				assertTrue(Arrays.asList("setter", "primitive setter").contains(e.getMessage()));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class BeanWriterTest {
+
+	public static class Failing {
+
+		public int getA() {
+			return 1;
+		}
+
+		public String getBroken() {
+			throw new IllegalStateException();
+		}
+
+		public String getChecked() throws IOException {
+			throw new IOException();
+		}
+
+	}
+
+	public static class Fatal {
+
+		public String getValue() {
+			throw new OutOfMemoryError("test");
+		}
+
+	}
+
+	@Test
+	public void failingGettersAreSkipped() {
+		Failing bean = new Failing();
+		assertEquals("{\"a\":1}", new JSONStringer().bean(bean));
+		assertEquals(new JSONObject(bean).toString(), new JSONStringer().bean(bean));
+	}
+
+	@Test
+	public void errorsPropagate() {
+		try {
+			new JSONStringer().bean(new Fatal());
+			fail();
+		} catch (OutOfMemoryError e) {
+			assertEquals("test", e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,210 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BlockCodecTest {
+
+	private static byte[] compress(byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new BlockCodec.BlockOutputStream(bytes)) {
+			out.write(data);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static byte[] decompress(byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (InputStream in = new BlockCodec.BlockInputStream(new ByteArrayInputStream(data))) {
+			byte[] buffer = new byte[4096];
+			int n;
+			while ((n = in.read(buffer)) >= 0) {
+				bytes.write(buffer, 0, n);
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private static byte[] random(int length) {
+		byte[] data = new byte[length];
+		new Random(42).nextBytes(data);
+		return data;
+	}
+
+	private static byte[] json(int length) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; builder.length() < length; i++) {
+			builder.append("{\"id\":").append(i).append(",\"name\":\"item").append(i % 97).append("\"},");
+		}
+		return builder.substring(0, length).getBytes(StandardCharsets.UTF_8);
+	}
+
+	/* 手工构造一个块 */
+	private static byte[] block(int size, int length, byte[] payload) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.write(BlockCodec.MAGIC);
+		out.writeInt(size);
+		out.writeInt(length);
+		out.write(payload);
+		out.writeInt(0);
+		return bytes.toByteArray();
+	}
+
+	private static void assertCorrupt(byte[] data) {
+		try {
+			decompress(data);
+			fail("应抛出IOException");
+		} catch (IOException e) {
+			// 预期的异常
+		}
+	}
+
+	private static void assertRoundTrip(byte[] data) throws IOException {
+		assertArrayEquals(data, decompress(compress(data)));
+	}
+
+	@Test
+	public void emptyInput() throws IOException {
+		byte[] compressed = compress(new byte[0]);
+		assertEquals(BlockCodec.MAGIC.length + 4, compressed.length);
+		assertEquals(0, decompress(compressed).length);
+	}
+
+	@Test
+	public void shortInputs() throws IOException {
+		for (int length = 1; length <= 32; length++) {
+			assertRoundTrip(json(length));
+			assertRoundTrip(random(length));
+		}
+	}
+
+	@Test
+	public void incompressibleInputIsStored() throws IOException {
+		byte[] data = random(10000);
+		byte[] compressed = compress(data);
+		// 头部, 块长度和结束标志之外没有额外开销
+		assertEquals(BlockCodec.MAGIC.length + 8 + data.length + 4, compressed.length);
+		assertArrayEquals(data, decompress(compressed));
+	}
+
+	@Test
+	public void repetitiveInput() throws IOException {
+		byte[] zeros = new byte[BlockCodec.BLOCK_SIZE];
+		byte[] compressed = compress(zeros);
+		assertTrue(compressed.length < zeros.length / 100);
+		assertArrayEquals(zeros, decompress(compressed));
+
+		byte[] pattern = new byte[5000];
+		for (int i = 0; i < pattern.length; i++) {
+			pattern[i] = (byte) "abc".charAt(i % 3);
+		}
+		assertRoundTrip(pattern);
+	}
+
+	@Test
+	public void multipleBlocks() throws IOException {
+		byte[] data = json(BlockCodec.BLOCK_SIZE * 3 + 123);
+		byte[] compressed = compress(data);
+		assertTrue(compressed.length < data.length);
+		assertArrayEquals(data, decompress(compressed));
+
+		// 逐字节写入与整块写入的结果相同
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new BlockCodec.BlockOutputStream(bytes)) {
+			for (byte b : data) {
+				out.write(b);
+			}
+		}
+		assertArrayEquals(compressed, bytes.toByteArray());
+
+		// 压缩块与未压缩块混合
+		byte[] mixed = new byte[BlockCodec.BLOCK_SIZE * 3];
+		System.arraycopy(random(BlockCodec.BLOCK_SIZE), 0, mixed, BlockCodec.BLOCK_SIZE, BlockCodec.BLOCK_SIZE);
+		assertRoundTrip(mixed);
+	}
+
+	@Test
+	public void singleByteReads() throws IOException {
+		byte[] data = json(BlockCodec.BLOCK_SIZE + 10);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (InputStream in = new BlockCodec.BlockInputStream(new ByteArrayInputStream(compress(data)))) {
+			int b;
+			while ((b = in.read()) >= 0) {
+				bytes.write(b);
+			}
+		}
+		assertArrayEquals(data, bytes.toByteArray());
+	}
+
+	@Test
+	public void truncatedInput() throws IOException {
+		byte[] compressed = compress(json(BlockCodec.BLOCK_SIZE + 1000));
+		for (int length = 0; length < compressed.length; length++) {
+			assertCorrupt(Arrays.copyOf(compressed, length));
+		}
+	}
+
+	@Test
+	public void wrongMagic() throws IOException {
+		byte[] compressed = compress(json(100));
+		compressed[0] = 'X';
+		assertCorrupt(compressed);
+	}
+
+	@Test
+	public void corruptHeaders() throws IOException {
+		// 块大小超出限制
+		assertCorrupt(block(Integer.MAX_VALUE, 4, new byte[4]));
+		assertCorrupt(block(-1, 4, new byte[4]));
+		// 未压缩块的长度与原始长度不一致
+		assertCorrupt(block(8, 4 | 0x80000000, new byte[4]));
+		// 压缩后长度为0
+		assertCorrupt(block(8, 0, new byte[0]));
+	}
+
+	@Test
+	public void corruptSequences() throws IOException {
+		// 匹配偏移量为0
+		assertCorrupt(block(8, 7, new byte[] { 0x40, 'a', 'b', 'c', 'd', 0, 0 }));
+		// 匹配偏移量超出已解压的数据
+		assertCorrupt(block(8, 7, new byte[] { 0x40, 'a', 'b', 'c', 'd', 5, 0 }));
+		// 匹配长度超出块大小
+		assertCorrupt(block(8, 8, new byte[] { 0x4F, 'a', 'b', 'c', 'd', 4, 0, 100 }));
+		// 字面量长度超出压缩数据
+		assertCorrupt(block(8, 2, new byte[] { (byte) 0xF0, 'a' }));
+		// 解压后的长度小于块大小
+		assertCorrupt(block(8, 3, new byte[] { 0x20, 'a', 'b' }));
+	}
+
+	@Test
+	public void randomCorruptionFailsCleanly() throws IOException {
+		byte[] data = json(5000);
+		byte[] compressed = compress(data);
+		Random random = new Random(7);
+		for (int i = BlockCodec.MAGIC.length; i < compressed.length; i++) {
+			byte[] copy = compressed.clone();
+			copy[i] ^= 1 << random.nextInt(8);
+			try {
+				decompress(copy);
+			} catch (IOException e) {
+				// 损坏的数据可以解压出错误的内容, 但只能以IOException失败
+			}
+		}
+	}
+
+}
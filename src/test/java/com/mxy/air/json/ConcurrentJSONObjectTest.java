@@ -0,0 +1,66 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ConcurrentJSONObjectTest {
+
+	@Test
+	public void nullValuesCountAsAbsent() {
+		ConcurrentJSONObject object = new ConcurrentJSONObject();
+		object.put("a", null);
+		assertTrue(object.containsKey("a"));
+		assertNull(object.get("a"));
+		assertNull(object.putIfAbsent("a", 1));
+		assertEquals(1, object.get("a"));
+		assertEquals(1, object.putIfAbsent("a", 2));
+
+		object.put("b", null);
+		assertEquals("x", object.computeIfAbsent("b", k -> "x"));
+		assertNull(object.computeIfAbsent("c", k -> null));
+		assertTrue(!object.containsKey("c"));
+
+		object.put("d", null);
+		assertNull(object.computeIfPresent("d", (k, v) -> "y"));
+		assertTrue(object.containsKey("d"));
+		assertEquals(3, object.merge("d", 3, (x, y) -> 0));
+		assertEquals(5, object.merge("d", 2, (x, y) -> (Integer) x + (Integer) y));
+	}
+
+	@Test
+	public void atomicCounters() throws Exception {
+		ConcurrentJSONObject object = new ConcurrentJSONObject();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 4000; i++) {
+			executor.execute(() -> object.merge("count", 1, (x, y) -> (Integer) x + (Integer) y));
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(4000, object.get("count"));
+	}
+
+	@Test
+	public void frozenRejectsAtomicOperations() {
+		ConcurrentJSONObject object = new ConcurrentJSONObject();
+		object.put("a", 1);
+		object.freeze();
+		try {
+			object.compute("a", (k, v) -> 2);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertTrue(e.getMessage().contains("冻结"));
+		}
+		FreezeTest.assertThrows(() -> object.put("b", 1));
+		FreezeTest.assertThrows(() -> object.putPath(new String[] { "x", "y" }, 1));
+		assertEquals(1, object.get("a"));
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CopyOnWriteTest {
+
+	/* 写时复制存储的私有数据, 为null时还未复制 */
+	private static Object copyOf(Object view) {
+		return field(view, "copy");
+	}
+
+	private static Object backing(JSONArray array) {
+		return ((FreezableList) field(array, "list")).backing();
+	}
+
+	private static Object field(Object target, String name) {
+		try {
+			Field field = target.getClass().getDeclaredField(name);
+			field.setAccessible(true);
+			return field.get(target);
+		} catch (ReflectiveOperationException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	@Test
+	public void readingNestedValuesDoesNotCopy() {
+		JSONObject template = new JSONObject("{\"a\":{\"b\":1},\"c\":[[1],2]}");
+		JSONObject object = template.copyOnWrite();
+		JSONObject nested = (JSONObject) object.get("a");
+		JSONArray array = (JSONArray) object.get("c");
+		JSONArray inner = (JSONArray) array.get(0);
+		assertSame(nested, object.get("a"));
+		assertSame(inner, array.get(0));
+		assertEquals(null, copyOf(object.backing()));
+		assertEquals(null, copyOf(backing(array)));
+
+		nested.put("b", 2);
+		inner.add(3);
+		assertEquals(null, copyOf(object.backing()));
+		assertEquals(new JSONObject("{\"a\":{\"b\":2},\"c\":[[1,3],2]}"), object);
+		assertTrue(array.contains(new JSONArray("[1,3]")));
+		for (Map.Entry<String, Object> entry : object.entrySet()) {
+			if (entry.getKey().equals("a")) {
+				assertSame(nested, entry.getValue());
+			}
+		}
+		assertSame(inner, array.iterator().next());
+		assertEquals(new JSONObject("{\"a\":{\"b\":1},\"c\":[[1],2]}"), template);
+
+		object.put("d", 4);
+		array.add(5);
+		assertSame(nested, object.get("a"));
+		assertSame(inner, array.get(0));
+		assertEquals(new JSONObject("{\"a\":{\"b\":2},\"c\":[[1,3],2,5],\"d\":4}"), object);
+	}
+
+	@Test
+	public void copyOnWriteFreezesTheTemplate() {
+		JSONObject template = new JSONObject("{\"a\":1}");
+		JSONObject copy = template.copyOnWrite();
+		assertTrue(template.isFrozen());
+		FreezeTest.assertThrows(() -> template.put("a", 2));
+		copy.put("a", 2);
+		assertNotSame(template.get("a"), copy.get("a"));
+	}
+
+}
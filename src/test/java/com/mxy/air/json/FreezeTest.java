@@ -0,0 +1,79 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Modifier;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FreezeTest {
+
+	@Test
+	public void storageFieldsAreFinal() throws Exception {
+		assertTrue(Modifier.isFinal(JSONObject.class.getDeclaredField("map").getModifiers()));
+		assertTrue(Modifier.isFinal(JSONArray.class.getDeclaredField("list").getModifiers()));
+	}
+
+	@Test
+	public void objectViewsTakenBeforeFreeze() {
+		JSONObject object = new JSONObject("{\"a\":1,\"b\":{\"c\":2}}");
+		Map<String, Object> map = object.map();
+		Set<String> keys = object.keySet();
+		Set<Map.Entry<String, Object>> entries = object.entrySet();
+		object.freeze();
+		assertThrows(() -> map.put("x", 1));
+		assertThrows(() -> keys.remove("a"));
+		assertThrows(() -> entries.iterator().next().setValue(3));
+		assertThrows(() -> {
+			Iterator<Object> values = object.values().iterator();
+			values.next();
+			values.remove();
+		});
+		assertThrows(() -> ((JSONObject) object.get("b")).put("d", 1));
+		assertThrows(() -> object.putIfAbsent("z", 1));
+		assertEquals(new JSONObject("{\"a\":1,\"b\":{\"c\":2}}"), object);
+	}
+
+	@Test
+	public void arrayViewsTakenBeforeFreeze() {
+		JSONArray array = new JSONArray("[1,[2],3]");
+		List<Object> list = array.list();
+		List<Object> sub = array.subList(0, 2);
+		Iterator<Object> iterator = array.iterator();
+		array.freeze();
+		assertThrows(() -> list.add(4));
+		assertThrows(() -> sub.set(0, 5));
+		assertThrows(() -> {
+			iterator.next();
+			iterator.remove();
+		});
+		assertThrows(() -> ((JSONArray) array.get(1)).add(1));
+		assertThrows(() -> array.sort((x, y) -> 0));
+		assertEquals(new JSONArray("[1,[2],3]"), array);
+	}
+
+	@Test
+	public void frozenHashIsCached() {
+		JSONObject a = new JSONObject("{\"a\":[1,2],\"b\":\"x\"}").freeze();
+		JSONObject b = new JSONObject("{\"b\":\"x\",\"a\":[1,2]}");
+		assertEquals(b.hashCode(), a.hashCode());
+		assertEquals(a, b);
+		assertEquals(b, a);
+	}
+
+	static void assertThrows(Runnable action) {
+		try {
+			action.run();
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+}
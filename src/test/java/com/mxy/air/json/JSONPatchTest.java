@@ -0,0 +1,60 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class JSONPatchTest {
+
+	private static JSONArray patch(String json) {
+		return new JSONArray(json);
+	}
+
+	@Test
+	public void rootPointer() {
+		JSONObject document = new JSONObject("{\"a\":1}");
+		JSONPatch.apply(document, patch("[{\"op\":\"test\",\"path\":\"\",\"value\":{\"a\":1}}]"));
+		Object copied = JSONPatch.apply(document, patch("[{\"op\":\"copy\",\"from\":\"\",\"path\":\"/b\"}]"));
+		assertEquals(new JSONObject("{\"a\":1,\"b\":{\"a\":1}}"), copied);
+		Object replaced = JSONPatch.apply(document, patch("[{\"op\":\"replace\",\"path\":\"\",\"value\":[1]}]"));
+		assertEquals(new JSONArray("[1]"), replaced);
+	}
+
+	@Test(expected = JSONException.class)
+	public void moveRootIntoChild() {
+		JSONPatch.apply(new JSONObject("{\"a\":{}}"), patch("[{\"op\":\"move\",\"from\":\"\",\"path\":\"/a/b\"}]"));
+	}
+
+	@Test
+	public void copyIsIndependent() {
+		JSONObject document = new JSONObject("{\"a\":{\"b\":[1]}}");
+		JSONPatch.apply(document, patch("[{\"op\":\"copy\",\"from\":\"/a\",\"path\":\"/c\"},"
+				+ "{\"op\":\"add\",\"path\":\"/c/b/-\",\"value\":2}]"));
+		assertNotSame(document.get("a"), document.get("c"));
+		assertEquals(new JSONObject("{\"a\":{\"b\":[1]},\"c\":{\"b\":[1,2]}}"), document);
+	}
+
+	@Test
+	public void numbersCompareByValue() {
+		JSONObject source = new JSONObject();
+		source.put("a", 1);
+		source.put("b", new JSONArray("[2, 3.50]"));
+		JSONObject target = new JSONObject();
+		target.put("a", 1L);
+		target.put("b", new JSONArray("[2.0, 3.5]"));
+		assertEquals(0, JSONPatch.diff(source, target).size());
+		JSONPatch.apply(source, patch("[{\"op\":\"test\",\"path\":\"/a\",\"value\":1.0}]"));
+	}
+
+	@Test
+	public void diffRoundTrip() {
+		JSONObject source = new JSONObject("{\"a\":1,\"b\":[1,2,3],\"c\":{\"d\":\"x\"}}");
+		JSONObject target = new JSONObject("{\"a\":2,\"b\":[1,3,4],\"e\":null}");
+		JSONArray diff = JSONPatch.diff(source, target);
+		assertTrue(diff.size() > 0);
+		assertEquals(target, JSONPatch.apply(source.deepCopy(), diff));
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class JSONSchemaTest {
+
+	private static Object parse(JSONSchema schema, String json) {
+		return new JSONTokener(json).setSchema(schema).nextValue();
+	}
+
+	@Test
+	public void requiredKeysAreNotSkipped() {
+		JSONSchema schema = JSONSchema.object().property("name", JSONSchema.string()).required("id").skipUnknown();
+		JSONObject object = (JSONObject) parse(schema, "{\"id\":1,\"name\":\"a\",\"other\":true}");
+		assertEquals(new JSONObject("{\"id\":1,\"name\":\"a\"}"), object);
+		assertFalse(object.containsKey("other"));
+		schema.validate(object);
+	}
+
+	@Test
+	public void requiredKeysAreNotRejected() {
+		JSONSchema schema = JSONSchema.compile(new JSONObject(
+				"{\"type\":\"object\",\"required\":[\"id\"],\"additionalProperties\":false}"));
+		assertEquals(new JSONObject("{\"id\":[1]}"), parse(schema, "{\"id\":[1]}"));
+		expectError(() -> parse(schema, "{\"id\":1,\"x\":2}"));
+		expectError(() -> parse(schema, "{}"));
+	}
+
+	@Test
+	public void unsupportedKeywords() {
+		expectError(() -> JSONSchema.compile(new JSONObject("{\"type\":\"string\",\"pattern\":\"^a\"}")));
+		expectError(() -> JSONSchema.compile(
+				new JSONObject("{\"properties\":{\"a\":{\"oneOf\":[{\"type\":\"string\"}]}}}")));
+		expectError(() -> JSONSchema.compile(new JSONObject("{\"additionalProperties\":{\"type\":\"string\"}}")));
+		JSONSchema.compile(new JSONObject("{\"$schema\":\"x\",\"title\":\"t\",\"description\":\"d\",\"type\":\"object\"}"));
+	}
+
+	@Test
+	public void skippedValuesMustHaveMatchingBrackets() {
+		JSONSchema schema = JSONSchema.object().property("a", JSONSchema.integer()).skipUnknown();
+		for (String value : new String[] { "[1,2}", "{\"b\":1]", "[{]}", "[[1]}]" }) {
+			expectError(() -> parse(schema, "{\"a\":1,\"x\":" + value + "}"));
+		}
+		assertEquals(new JSONObject("{\"a\":1}"), parse(schema, "{\"a\":1,\"x\":[{\"b\":\"]}\"},[]]}"));
+	}
+
+	private static void expectError(Runnable action) {
+		try {
+			action.run();
+			fail();
+		} catch (JSONException e) {
+			// expected
+		}
+	}
+
+}
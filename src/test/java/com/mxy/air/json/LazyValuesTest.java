@@ -0,0 +1,115 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class LazyValuesTest {
+
+	private static Object lazyNumbers(String json) {
+		return new JSONTokener(json).setLazyNumbers(true).nextValue();
+	}
+
+	@Test
+	public void numberEqualsIsSymmetric() {
+		JSONArray lazy = (JSONArray) lazyNumbers("[2]");
+		Object number = lazy.get(0);
+		assertTrue(number instanceof JSONNumber);
+		assertFalse(number.equals(2));
+		assertFalse(Integer.valueOf(2).equals(number));
+		assertEquals(number, ((JSONArray) lazyNumbers("[2]")).get(0));
+	}
+
+	@Test
+	public void containersCompareLazyNumbersByValue() {
+		JSONArray lazy = (JSONArray) lazyNumbers("[1,2,3.5,12345678901]");
+		JSONArray eager = new JSONArray("[1,2,3.5,12345678901]");
+		assertTrue(lazy.contains(2));
+		assertEquals(1, lazy.indexOf(2));
+		assertEquals(2, lazy.lastIndexOf(3.5));
+		assertEquals(lazy, eager);
+		assertEquals(eager, lazy);
+		assertEquals(eager.hashCode(), lazy.hashCode());
+		assertTrue(lazy.remove((Object) 1));
+		assertEquals(new JSONArray("[2,3.5,12345678901]"), lazy);
+
+		JSONObject object = (JSONObject) lazyNumbers("{\"a\":1,\"b\":[2]}");
+		assertTrue(object.containsValue(1));
+		assertEquals(new JSONObject("{\"a\":1,\"b\":[2]}"), object);
+		assertEquals(object, new JSONObject("{\"a\":1,\"b\":[2]}"));
+	}
+
+	@Test
+	public void indexedArrayFindsLazyNumbers() {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < 200; i++) {
+			builder.append(i > 0 ? "," : "").append(i);
+		}
+		JSONArray array = ((JSONArray) lazyNumbers(builder.append(']').toString())).indexed();
+		assertTrue(array.contains(150));
+		assertEquals(150, array.indexOf(150));
+		assertEquals(150, array.lastIndexOf(150));
+		assertEquals(7, array.indexOf(new JSONTokener("7").setLazyNumbers(true).nextValue()));
+		array.add(1000);
+		assertEquals(200, array.indexOf(1000));
+	}
+
+	@Test
+	public void patchTreatsLazyNumbersAsValues() {
+		Object lazy = lazyNumbers("{\"a\":[1,2.5],\"b\":3}");
+		Object eager = new JSONObject("{\"a\":[1,2.5],\"b\":3}");
+		assertEquals(0, JSONPatch.diff(lazy, eager).size());
+		assertEquals(0, JSONPatch.diff(eager, lazy).size());
+		JSONPatch.apply(lazy, new JSONArray("[{\"op\":\"test\",\"path\":\"/b\",\"value\":3}]"));
+	}
+
+	private static Object lazyStrings(String json) {
+		return new JSONTokener(json).setLazyStrings(true).nextValue();
+	}
+
+	@Test
+	public void stringEqualsIsSymmetric() {
+		Object string = ((JSONArray) lazyStrings("[\"a\"]")).get(0);
+		assertTrue(string instanceof JSONString);
+		assertFalse(string.equals("a"));
+		assertFalse("a".equals(string));
+		assertEquals(string, ((JSONArray) lazyStrings("[\"a\"]")).get(0));
+	}
+
+	@Test
+	public void containersCompareLazyStringsByContent() {
+		JSONArray lazy = (JSONArray) lazyStrings("[\"a\",\"b\\n\",\"a\"]");
+		JSONArray eager = new JSONArray("[\"a\",\"b\\n\",\"a\"]");
+		assertTrue(lazy.contains("b\n"));
+		assertEquals(0, lazy.indexOf("a"));
+		assertEquals(2, lazy.lastIndexOf("a"));
+		assertEquals(lazy, eager);
+		assertEquals(eager, lazy);
+		assertEquals(eager.hashCode(), lazy.hashCode());
+
+		JSONObject object = (JSONObject) lazyStrings("{\"a\":\"x\"}");
+		assertTrue(object.containsValue("x"));
+		assertEquals(new JSONObject("{\"a\":\"x\"}"), object);
+		assertEquals(object, new JSONObject("{\"a\":\"x\"}"));
+
+		assertEquals(0, JSONPatch.diff(object, new JSONObject("{\"a\":\"x\"}")).size());
+		JSONPatch.apply(object, new JSONArray("[{\"op\":\"test\",\"path\":\"/a\",\"value\":\"x\"}]"));
+	}
+
+	@Test
+	public void unicodeEscapesRoundTrip() {
+		String json = "[\"\\u0041\",\"x\\u00e9\\ty\",\"\\u4e2d\\u6587\"]";
+		JSONArray expected = new JSONArray(Arrays.asList("A", "x\u00e9\ty", "\u4e2d\u6587"));
+		JSONArray eager = new JSONArray(json);
+		assertEquals(expected, eager);
+		assertEquals(expected, lazyStrings(json));
+		assertEquals("A", ((JSONArray) lazyStrings(json)).get(0).toString());
+		assertEquals(eager, new JSONArray(eager.toString()));
+		assertEquals(eager, lazyStrings(eager.toString()));
+	}
+
+}
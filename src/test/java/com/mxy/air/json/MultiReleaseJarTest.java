@@ -0,0 +1,133 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * 在Java 8和Java 11上分别通过testJar8, testJar11运行, 检查Multi-Release JAR加载的实现
+ *
+ * @author mengxiangyun
+ *
+ */
+public class MultiReleaseJarTest {
+
+	private static Path file;
+
+	@BeforeClass
+	public static void createFile() throws Exception {
+		file = Files.createTempFile("air-json", ".json");
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < 1000; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"id\":").append(i).append(",\"name\":\"name ").append(i).append("\"}");
+		}
+		sb.append(']');
+		Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@AfterClass
+	public static void deleteFile() throws Exception {
+		Files.deleteIfExists(file);
+	}
+
+	private static int javaVersion() {
+		String version = System.getProperty("java.specification.version");
+		return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+	}
+
+	@Test
+	public void loadsVersionedByteScanner() throws Exception {
+		String location = ByteScanner.class.getProtectionDomain().getCodeSource().getLocation().getPath();
+		// 只有从jar中加载时才会使用META-INF/versions/11中的实现
+		if (!location.endsWith(".jar")) {
+			return;
+		}
+		boolean varHandle = false;
+		for (Field field : ByteScanner.class.getDeclaredFields()) {
+			if (field.getType().getName().equals("java.lang.invoke.VarHandle")) {
+				varHandle = true;
+			}
+		}
+		assertEquals(javaVersion() >= 11, varHandle);
+	}
+
+	@Test
+	public void streamArray() throws Exception {
+		try (Stream<Object> stream = JSON.streamArray(file, true)) {
+			List<Integer> ids = stream.map(o -> ((JSONObject) o).getInt("id")).sorted().collect(Collectors.toList());
+			assertEquals(1000, ids.size());
+			assertEquals(999, (int) ids.get(999));
+		}
+	}
+
+	@Test
+	public void readArrayAsync() throws Exception {
+		JSONArray array = JSON.readArrayAsync(file).get(10, TimeUnit.SECONDS);
+		assertEquals(1000, array.size());
+		assertEquals("name 999", ((JSONObject) array.get(999)).getString("name"));
+	}
+
+	@Test
+	public void scanAscii() {
+		byte[] bytes = "{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8);
+		assertTrue(ByteScanner.isAscii(bytes));
+		assertEquals(JSONObject.class, new JSONTokener(bytes).nextValue().getClass());
+	}
+
+	/**
+	 * 按字节扫描与按字符扫描的解析结果(或错误信息)
+	 */
+	private static String parse(JSONTokener tokener, int mode) {
+		try {
+			return String.valueOf(tokener.setStrict(mode == 1).setLazyStrings(mode == 2).nextValue());
+		} catch (JSONException e) {
+			return "error: " + e.getMessage();
+		}
+	}
+
+	private static void assertScannersAgree(String json) {
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		assertTrue(json, ByteScanner.isAscii(bytes));
+		for (int mode = 0; mode < 3; mode++) {
+			assertEquals(json, parse(new JSONTokener(json), mode), parse(new JSONTokener(bytes), mode));
+		}
+	}
+
+	@Test
+	public void scannersAgreeAtEveryOffset() {
+		// 引号, 转义字符以及结束位置分别落在8字节的每个位置上
+		String[] bodies = { "a\\\"b", "\\\\", "\\\"", "x\\u0041\\n", "\\", "\\\\\\\"", "",
+				"abcdefgh\\\"ijklmnop", "tab\there", "\"" };
+		for (String body : bodies) {
+			for (int offset = 0; offset < 16; offset++) {
+				StringBuilder padding = new StringBuilder();
+				for (int i = 0; i < offset; i++) {
+					padding.append('p');
+				}
+				String value = padding + body;
+				assertScannersAgree("\"" + value + "\"");
+				assertScannersAgree("{\"" + value + "\":[\"" + value + "\",\"" + body + "\"]}");
+				assertScannersAgree("['" + value + "', '" + padding + "\"" + "']");
+				assertScannersAgree(padding.toString().replace('p', ' ') + "[" + value.replace("\"", "") + ", true]");
+				// 未终止的字符串
+				assertScannersAgree("[\"" + value);
+			}
+		}
+	}
+
+}
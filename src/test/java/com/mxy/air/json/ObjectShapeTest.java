@@ -0,0 +1,43 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ObjectShapeTest {
+
+	@Test
+	public void pathLengthIsCapped() {
+		ObjectShape shape = ObjectShape.root(false);
+		int depth = 0;
+		while (shape != null) {
+			shape = shape.next("depth-test-" + depth);
+			depth++;
+		}
+		assertEquals(33, depth);
+	}
+
+	@Test
+	public void keysByIdDoNotDisableTheCache() {
+		for (int round = 0; round < 3; round++) {
+			Map<String, Object> map = new LinkedHashMap<>();
+			for (int i = 0; i < 20000; i++) {
+				map.put("id" + round + "-" + i, i);
+			}
+			JSONObject object = new JSONObject(map);
+			assertEquals(object, new JSONObject(object.toString()));
+		}
+		for (int i = 0; i < 20000; i++) {
+			ObjectShape.root(true).next("pretty" + i);
+		}
+		assertNotNull(ObjectShape.root(false).next("a"));
+		assertNotNull(ObjectShape.root(true).next("a"));
+		assertEquals("\"a\":", ObjectShape.root(false).next("a").key);
+		assertEquals("\"a\": ", ObjectShape.root(true).next("a").key);
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+public class ReadAheadReaderTest {
+
+	/* 读取一部分字符后抛出指定异常的Reader */
+	private static final class FailingReader extends Reader {
+
+		private final Reader source = new StringReader("[1,2,3]");
+
+		private final Throwable failure;
+
+		FailingReader(Throwable failure) {
+			this.failure = failure;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			int n = source.read(cbuf, off, Math.min(len, 2));
+			if (n < 0) {
+				if (failure instanceof IOException) {
+					throw (IOException) failure;
+				} else if (failure instanceof Error) {
+					throw (Error) failure;
+				}
+				throw (RuntimeException) failure;
+			}
+			return n;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static String readAll(Reader reader) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		char[] buffer = new char[3];
+		int n;
+		while ((n = reader.read(buffer)) >= 0) {
+			sb.append(buffer, 0, n);
+		}
+		return sb.toString();
+	}
+
+	@Test(timeout = 10000)
+	public void readsEverything() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 200000; i++) {
+			sb.append(i % 10);
+		}
+		try (Reader reader = new ReadAheadReader(new StringReader(sb.toString()))) {
+			assertEquals(sb.toString(), readAll(reader));
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void producerErrorsReachTheConsumer() throws IOException {
+		try (Reader reader = new ReadAheadReader(new FailingReader(new InternalError("inflater")))) {
+			readAll(reader);
+			fail();
+		} catch (InternalError e) {
+			assertEquals("inflater", e.getMessage());
+		}
+		try (Reader reader = new ReadAheadReader(new FailingReader(new IllegalStateException("state")))) {
+			readAll(reader);
+			fail();
+		} catch (IOException e) {
+			assertEquals("state", e.getCause().getMessage());
+		}
+		try (Reader reader = new ReadAheadReader(new FailingReader(new IOException("io")))) {
+			readAll(reader);
+			fail();
+		} catch (IOException e) {
+			assertEquals("io", e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,155 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResourceRegistryTest {
+
+	private Path root;
+
+	@Before
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("registry");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> stream = Files.walk(root)) {
+			stream.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private static Map<String, String> resources(String version) {
+		Map<String, String> resources = new LinkedHashMap<>();
+		resources.put("config/app.json", "{\"version\":\"" + version + "\"}");
+		resources.put("config/sub/list.json", "[1,2,3]");
+		resources.put("config/readme.txt", "not json");
+		resources.put("other/skip.json", "{}");
+		return resources;
+	}
+
+	/* 资源写入目录 */
+	private Path directory(String name, Map<String, String> resources) throws IOException {
+		Path dir = root.resolve(name);
+		for (Map.Entry<String, String> entry : resources.entrySet()) {
+			Path file = dir.resolve(entry.getKey());
+			Files.createDirectories(file.getParent());
+			Files.write(file, entry.getValue().getBytes(StandardCharsets.UTF_8));
+		}
+		return dir;
+	}
+
+	/* 资源写入jar包, 与jar命令和Gradle一样包含目录条目 */
+	private Path jar(String name, Map<String, String> resources) throws IOException {
+		Path jar = root.resolve(name);
+		try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+			Set<String> dirs = new HashSet<>();
+			for (Map.Entry<String, String> entry : resources.entrySet()) {
+				String entryName = entry.getKey();
+				for (int i = entryName.indexOf('/'); i >= 0; i = entryName.indexOf('/', i + 1)) {
+					if (dirs.add(entryName.substring(0, i + 1))) {
+						out.putNextEntry(new JarEntry(entryName.substring(0, i + 1)));
+						out.closeEntry();
+					}
+				}
+				out.putNextEntry(new JarEntry(entry.getKey()));
+				out.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+				out.closeEntry();
+			}
+		}
+		return jar;
+	}
+
+	/* 不委托给父加载器, 只能找到path中的资源 */
+	private static URLClassLoader loader(Path path) throws IOException {
+		return new URLClassLoader(new URL[] { path.toUri().toURL() }, null);
+	}
+
+	private static void assertLoaded(ClassLoader loader, String version) {
+		Object app = ResourceRegistry.get(loader, "config/app.json");
+		assertEquals(version, ((JSONObject) app).getString("version"));
+		assertTrue(((JSONObject) app).isFrozen());
+		assertSame(app, ResourceRegistry.get(loader, "/config/app.json"));
+		JSONArray list = (JSONArray) ResourceRegistry.get(loader, "config/sub/list.json");
+		assertEquals(3, list.size());
+		assertTrue(list.isFrozen());
+	}
+
+	@Test
+	public void preloadFromDirectory() throws IOException {
+		Path dir = directory("dir", resources("dir"));
+		try (URLClassLoader loader = loader(dir)) {
+			assertEquals(2, ResourceRegistry.preload(loader, "config"));
+			// 预加载后直接从内存中读取, 不再访问文件
+			Files.delete(dir.resolve("config/app.json"));
+			assertLoaded(loader, "dir");
+		}
+	}
+
+	@Test
+	public void preloadFromJar() throws IOException {
+		Path jar = jar("resources.jar", resources("jar"));
+		try (URLClassLoader loader = loader(jar)) {
+			assertEquals(2, ResourceRegistry.preload(loader, "/config/"));
+			assertLoaded(loader, "jar");
+		}
+	}
+
+	@Test
+	public void lazyGet() throws IOException {
+		Path dir = directory("lazy", resources("lazy"));
+		try (URLClassLoader loader = loader(dir)) {
+			Object app = ResourceRegistry.get(loader, "config/app.json");
+			assertEquals("lazy", ((JSONObject) app).getString("version"));
+			// 第一次读取后保存在内存中
+			Files.delete(dir.resolve("config/app.json"));
+			assertSame(app, ResourceRegistry.get(loader, "config/app.json"));
+			assertNull(ResourceRegistry.get(loader, "config/missing.json"));
+			assertEquals("{}", ResourceRegistry.get(loader, "other/skip.json").toString());
+		}
+	}
+
+	@Test
+	public void loadersHaveSeparateCaches() throws IOException {
+		try (URLClassLoader first = loader(directory("first", resources("first")));
+				URLClassLoader second = loader(jar("second.jar", resources("second")))) {
+			ResourceRegistry.preload(first, "config");
+			assertLoaded(first, "first");
+			// 同名资源从各自的ClassLoader中加载
+			assertLoaded(second, "second");
+			ResourceRegistry.preload(second, "config");
+			assertLoaded(first, "first");
+		}
+	}
+
+	@Test(expected = JSONException.class)
+	public void invalidResource() throws IOException {
+		Map<String, String> resources = new LinkedHashMap<>();
+		resources.put("broken/bad.json", "{\"a\":");
+		try (URLClassLoader loader = loader(directory("broken", resources))) {
+			ResourceRegistry.preload(loader, "broken");
+		}
+	}
+
+}
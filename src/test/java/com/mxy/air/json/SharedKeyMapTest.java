@@ -0,0 +1,60 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class SharedKeyMapTest {
+
+	private static JSONArray parse(String json) {
+		return (JSONArray) new JSONTokener(json).setSharedKeys(true).nextValue();
+	}
+
+	@Test
+	public void branchesKeepTheirOwnKeys() {
+		JSONArray array = parse("[{\"a\":1,\"b\":2,\"c\":3},{\"a\":4,\"x\":5},{\"a\":6,\"b\":7,\"y\":8},{\"a\":9,\"b\":10}]");
+		assertEquals(new JSONObject("{\"a\":1,\"b\":2,\"c\":3}"), array.get(0));
+		assertEquals(new JSONObject("{\"a\":4,\"x\":5}"), array.get(1));
+		assertEquals(new JSONObject("{\"a\":6,\"b\":7,\"y\":8}"), array.get(2));
+		assertEquals(new JSONObject("{\"a\":9,\"b\":10}"), array.get(3));
+		JSONObject shorter = (JSONObject) array.get(3);
+		assertNull(shorter.get("c"));
+		assertNull(shorter.get("y"));
+		assertEquals(2, shorter.size());
+	}
+
+	@Test
+	public void largeAndManyShapes() {
+		StringBuilder builder = new StringBuilder("[");
+		List<Map<String, Object>> expected = new ArrayList<>();
+		for (int n = 0; n < 200; n++) {
+			if (n > 0) {
+				builder.append(',');
+			}
+			builder.append('{');
+			Map<String, Object> map = new LinkedHashMap<>();
+			for (int i = 0; i < n % 50; i++) {
+				String key = "k" + (i == n % 7 ? n : i);
+				builder.append(i > 0 ? "," : "").append('"').append(key).append("\":").append(i);
+				map.put(key, i);
+			}
+			builder.append('}');
+			expected.add(map);
+		}
+		JSONArray array = parse(builder.append(']').toString());
+		for (int n = 0; n < expected.size(); n++) {
+			JSONObject object = (JSONObject) array.get(n);
+			assertEquals(new JSONObject(expected.get(n)), object);
+			for (Map.Entry<String, Object> entry : expected.get(n).entrySet()) {
+				assertEquals(((Number) entry.getValue()).intValue(), ((Number) object.get(entry.getKey())).intValue());
+			}
+		}
+	}
+
+}
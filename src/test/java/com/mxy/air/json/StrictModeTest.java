@@ -0,0 +1,98 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class StrictModeTest {
+
+	private static final String[] INVALID_STRINGS = { "\"abc", "[\"abc", "{\"a\":\"b", "\"a\\", "\"\\x\"", "\"\\'\"",
+			"\"\\u12\"", "\"\\u12G4\"", "\"\\u", "\"a\tb\"", "\"a\nb\"", "{\"a\u0001\":1}", "[\"\\u00e9\\q\"]" };
+
+	private static Object parse(String json, boolean bytes, boolean lazy) {
+		JSONTokener tokener = bytes ? new JSONTokener(json.getBytes(StandardCharsets.UTF_8)) : new JSONTokener(json);
+		return tokener.setStrict(true).setLazyStrings(lazy).nextValue();
+	}
+
+	@Test
+	public void rejectsInvalidStrings() {
+		for (String json : INVALID_STRINGS) {
+			for (int mode = 0; mode < 4; mode++) {
+				try {
+					parse(json, (mode & 1) != 0, (mode & 2) != 0);
+					fail(json + " mode " + mode);
+				} catch (JSONException e) {
+					// expected
+				}
+			}
+		}
+	}
+
+	@Test
+	public void rejectsInvalidStringsInSkippedValues() {
+		JSONSchema schema = JSONSchema.object().skipUnknown();
+		for (String value : new String[] { "\"a\tb\"", "\"\\x\"", "\"abc" }) {
+			try {
+				new JSONTokener("{\"skipped\":" + value + "}").setStrict(true).setSchema(schema).nextValue();
+				fail(value);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void acceptsValidEscapes() {
+		String json = "[\"\\\"\\\\\\/\\b\\f\\n\\r\\t\",\"\\u00e9\\u00C9\",\"plain text long enough for the scanner\"]";
+		for (int mode = 0; mode < 4; mode++) {
+			JSONArray array = (JSONArray) parse(json, (mode & 1) != 0, (mode & 2) != 0);
+			assertEquals("\"\\/\b\f\n\r\t", array.get(0).toString());
+			assertEquals("\u00e9\u00c9", array.get(1).toString());
+			assertEquals("plain text long enough for the scanner", array.get(2).toString());
+		}
+	}
+
+	@Test
+	public void relaxedModeIsLenient() {
+		assertEquals("a\tb", new JSONTokener("\"a\tb\"").nextValue());
+		assertEquals("abc", new JSONTokener("\"abc").nextValue());
+	}
+
+	@Test
+	public void skippedContainersAreValidated() {
+		JSONSchema schema = JSONSchema.object().property("a", JSONSchema.integer()).skipUnknown();
+		String[] invalid = { "{\"q\":[1 2 @@}]}", "[}", "[1,]", "{\"a\":1,}", "[,1]", "{\"a\" 1}", "{\"a\"=1}", "{a:1}",
+				"['a']", "[01]", "[tru]", "{\"a\":[1}", "[[]]]", "[1}" };
+		for (String value : invalid) {
+			for (boolean bytes : new boolean[] { false, true }) {
+				String json = "{\"a\":1,\"x\":" + value + "}";
+				try {
+					JSONTokener tokener = bytes ? new JSONTokener(json.getBytes(StandardCharsets.UTF_8)) : new JSONTokener(json);
+					tokener.setStrict(true).setSchema(schema).nextValue();
+					fail(value);
+				} catch (JSONException e) {
+					// expected
+				}
+			}
+			try {
+				new JSONTokener("{\"i\":1,\"x\":" + value + "}").setStrict(true).readBean(Bean.class);
+				fail(value);
+			} catch (JSONException e) {
+				// expected
+			}
+		}
+		String valid = "{\"q\":[1,-2.5e3,true,false,null,\"s\\n\",{},[],{\"k\":[{}]}],\"e\":{}}";
+		assertEquals(new JSONObject("{\"a\":1}"),
+				new JSONTokener("{\"a\":1,\"x\":" + valid + "}").setStrict(true).setSchema(schema).nextValue());
+		assertEquals(1, new JSONTokener("{\"i\":1,\"x\":" + valid + "}").setStrict(true).readBean(Bean.class).i);
+	}
+
+	public static class Bean {
+
+		private int i;
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.mxy.air.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class UnwrappedViewsTest {
+
+	@Test
+	public void mapViewUnwrapsNestedValues() {
+		JSONObject object = new JSONObject("{\"a\":{\"b\":[1,{\"c\":2}]}}");
+		Map<String, Object> view = object.asMap();
+		assertEquals(Collections.singletonMap("a", Collections.singletonMap("b", Arrays.asList(1, Collections.singletonMap("c", 2)))), view);
+		assertTrue(view.get("a") instanceof Map);
+		FreezeTest.assertThrows(() -> view.put("d", 1));
+	}
+
+	@Test
+	public void listViewSurvivesIndexed() {
+		JSONArray array = new JSONArray();
+		for (int i = 0; i < 100; i++) {
+			array.add(i);
+		}
+		List<Object> view = array.asList();
+		List<Object> list = array.list();
+		array.indexed();
+		array.add("x");
+		list.add("y");
+		assertEquals(102, view.size());
+		assertEquals("y", view.get(101));
+		assertEquals(101, array.indexOf("y"));
+		assertTrue(array.contains("x"));
+	}
+
+	@Test
+	public void viewsSurviveFreeze() {
+		JSONObject object = new JSONObject();
+		Map<String, Object> view = object.asMap();
+		object.put("a", 1);
+		object.freeze();
+		assertEquals(Collections.singletonMap("a", 1), view);
+		JSONArray array = new JSONArray("[1]");
+		List<Object> list = array.asList();
+		array.add(2);
+		array.freeze().indexed();
+		assertEquals(Arrays.asList(1, 2), list);
+	}
+
+}